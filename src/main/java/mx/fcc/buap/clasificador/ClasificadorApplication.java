@@ -7,9 +7,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ForkJoinPool;
 
 @SpringBootApplication
-@EnableConfigurationProperties(StorageProperties.class)
+@EnableConfigurationProperties({StorageProperties.class, ClasificadorProperties.class})
+@EnableScheduling
 public class ClasificadorApplication
 {
 
@@ -25,4 +29,9 @@ public class ClasificadorApplication
 			storageService.init();
 		};
 	}
+
+	@Bean(destroyMethod = "shutdown")
+	ForkJoinPool kMeansPool(ClasificadorProperties properties) {
+		return new ForkJoinPool(properties.getKmeans().getParallelism());
+	}
 }
@@ -0,0 +1,152 @@
+package mx.fcc.buap.clasificador;
+
+import lombok.Data;
+import mx.fcc.buap.clasificador.domain.PlotSampling;
+import mx.fcc.buap.clasificador.kmeans.KSweep;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Parametros de configuracion del clasificador, leidos de application.properties con
+ * el prefijo "clasificador".
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Data
+@ConfigurationProperties("clasificador")
+public class ClasificadorProperties
+{
+	/**
+	 * Tamaño de archivo a partir del cual los DataSet se cargan en el modelo columnar
+	 * (StorageMode.FAST) cuando la peticion no especifica un modelo.
+	 */
+	private DataSize fastModeThreshold = DataSize.ofMegabytes(1);
+
+	private final KMeans kmeans = new KMeans();
+
+	private final Cache cache = new Cache();
+
+	private final Jobs jobs = new Jobs();
+
+	private final Plot plot = new Plot();
+
+	private final Diagnostics diagnostics = new Diagnostics();
+
+	private final Uploads uploads = new Uploads();
+
+	@Data
+	public static class KMeans
+	{
+		/**
+		 * Numero de hilos del ForkJoinPool en el que se ejecuta k-means en paralelo.
+		 */
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	@Data
+	public static class Cache
+	{
+		/**
+		 * Numero maximo de tablas, leidas o normalizadas, que se conservan en memoria.
+		 */
+		private int maxEntries = 16;
+
+		/**
+		 * Tamaño maximo que pueden ocupar en el heap las tablas conservadas en memoria.
+		 */
+		private DataSize maxSize = DataSize.ofMegabytes(256);
+	}
+
+	@Data
+	public static class Jobs
+	{
+		/**
+		 * Numero de clasificaciones que se ejecutan al mismo tiempo.
+		 */
+		private int threads = 2;
+
+		/**
+		 * Numero maximo de clasificaciones que esperan un hilo libre; las solicitudes que
+		 * exceden este numero se rechazan.
+		 */
+		private int queueCapacity = 16;
+
+		/**
+		 * Numero de clasificaciones terminadas cuyo estado se conserva.
+		 */
+		private int retained = 32;
+
+		/**
+		 * Tamaño maximo que pueden ocupar en el heap los resultados de las clasificaciones
+		 * terminadas, incluidas las tablas que clasifican. Las clasificaciones mas antiguas
+		 * que exceden este tamaño conservan solo su estado y su archivo de resultado.
+		 */
+		private DataSize maxResultSize = DataSize.ofMegabytes(256);
+
+		/**
+		 * Numero de instancias con las que se calcula la silueta de cada k en un barrido,
+		 * entre 2 y KSweep.MAX_SAMPLE.
+		 */
+		private int silhouetteSample = 1000;
+
+		public void setSilhouetteSample(int silhouetteSample)
+		{
+			if (silhouetteSample < 2 || silhouetteSample > KSweep.MAX_SAMPLE)
+				throw new IllegalArgumentException("clasificador.jobs.silhouette-sample debe estar entre 2 y " +
+						KSweep.MAX_SAMPLE + ": " + silhouetteSample);
+			this.silhouetteSample = silhouetteSample;
+		}
+	}
+
+	@Data
+	public static class Plot
+	{
+		/**
+		 * Numero maximo de puntos de cada cluster que se envian a la grafica de resultados.
+		 */
+		private int maxPointsPerCluster = 2000;
+
+		/**
+		 * Forma de escoger los puntos de los clusters que tienen mas instancias.
+		 */
+		private PlotSampling sampling = PlotSampling.STRATIFIED;
+	}
+
+	@Data
+	public static class Diagnostics
+	{
+		/**
+		 * Numero de instancias de cada tabla y de cada cluster que se incluyen en el log.
+		 */
+		private int rows = 5;
+
+		/**
+		 * Si se registran ademas, en nivel debug, todas las instancias de cada tabla y de
+		 * cada cluster. En archivos grandes construir estos textos cuesta mas que clasificar.
+		 */
+		private boolean fullDumps;
+	}
+
+	@Data
+	public static class Uploads
+	{
+		/**
+		 * Numero de cargas por partes cuyo CSV se convierte al formato por columnas mientras
+		 * llegan las partes; las demas se convierten al completarse.
+		 */
+		private int parsers = 2;
+
+		/**
+		 * Tiempo sin recibir partes despues del cual una carga se descarta.
+		 */
+		private Duration idleTimeout = Duration.ofMinutes(30);
+
+		/**
+		 * Intervalo con el que se descartan las cargas inactivas y sus archivos temporales.
+		 */
+		private Duration pruneInterval = Duration.ofMinutes(1);
+	}
+}
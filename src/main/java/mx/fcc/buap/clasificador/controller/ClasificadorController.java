@@ -2,22 +2,33 @@ package mx.fcc.buap.clasificador.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import mx.fcc.buap.clasificador.domain.ClusterSet;
-import mx.fcc.buap.clasificador.domain.DataSet;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.PlotSampling;
+import mx.fcc.buap.clasificador.domain.StorageMode;
 import mx.fcc.buap.clasificador.dto.ClusterForm;
-import mx.fcc.buap.clasificador.service.DataSetService;
-import mx.fcc.buap.clasificador.storage.StorageFileNotFoundException;
+import mx.fcc.buap.clasificador.dto.ClusteringRequest;
+import mx.fcc.buap.clasificador.job.ClusteringJob;
+import mx.fcc.buap.clasificador.job.ClusteringJobService;
+import mx.fcc.buap.clasificador.job.JobPhase;
+import mx.fcc.buap.clasificador.kmeans.Initialization;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.service.ClusteringJsonWriter;
+import mx.fcc.buap.clasificador.service.ReportFormat;
 import mx.fcc.buap.clasificador.storage.StorageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.io.IOException;
-import java.math.BigDecimal;
-
 /**
  * @author Carlos Montoya
  * @since 19/04/2019
@@ -29,10 +40,10 @@ import java.math.BigDecimal;
 public class ClasificadorController
 {
 	private final StorageService storageService;
-	private final DataSetService dataSetService;
+	private final ClusteringJobService jobService;
+	private final ClasificadorProperties properties;
 
-	private static final String[] normalizationMethods = new String[]
-			{ "min-max", "z-score", "decimal-scaling" };
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
 	@GetMapping("")
 	public String parametrosClasificacion(@RequestParam String filename, Model model)
@@ -56,63 +67,190 @@ public class ClasificadorController
 		else
 		{
 			redirectAttributes.addAttribute("numberOfClusters", form.getNumberOfClusters());
+			if (form.getMaxClusters() != null)
+				redirectAttributes.addAttribute("maxClusters", form.getMaxClusters());
 		}
 		redirectAttributes.addAttribute("method", form.getMethod());
+		if (form.getMode() != null)
+			redirectAttributes.addAttribute("mode", form.getMode());
+		if (form.getPrecision() != null)
+			redirectAttributes.addAttribute("precision", form.getPrecision());
+		if (form.isParallel())
+			redirectAttributes.addAttribute("parallel", true);
+		if (form.getSeed() != null)
+			redirectAttributes.addAttribute("seed", form.getSeed());
+		if (form.getAlgorithm() != null)
+			redirectAttributes.addAttribute("algorithm", form.getAlgorithm());
+		if (form.getInitialization() != null)
+			redirectAttributes.addAttribute("initialization", form.getInitialization());
+		if (form.getBatchSize() != null)
+			redirectAttributes.addAttribute("batchSize", form.getBatchSize());
+		if (form.getMaxIterations() != null)
+			redirectAttributes.addAttribute("maxIterations", form.getMaxIterations());
+		if (form.getTolerance() != null)
+			redirectAttributes.addAttribute("tolerance", form.getTolerance());
+		if (form.getMinImprovement() != null)
+			redirectAttributes.addAttribute("minImprovement", form.getMinImprovement());
+		if (form.getTimeBudgetMillis() != null)
+			redirectAttributes.addAttribute("timeBudgetMillis", form.getTimeBudgetMillis());
+		if (form.getRestarts() != null)
+			redirectAttributes.addAttribute("restarts", form.getRestarts());
+		if (form.getReportFormat() != null)
+			redirectAttributes.addAttribute("reportFormat", form.getReportFormat());
+		if (form.isCompressReport())
+			redirectAttributes.addAttribute("compressReport", true);
 		return "redirect:/clasificador/" + filename;
 	}
 
+	/**
+	 * Encola la clasificacion del archivo y redirige a la pagina que muestra su avance.
+	 */
 	@GetMapping("/{filename}")
-	public String clasificar(@PathVariable String filename,
-	                         @RequestParam String method,
-	                         @RequestParam(required = false) Integer numberOfClusters,
-	                         @RequestParam(required = false) String centroids,
-	                         Model model)
+	public String clasificar(@PathVariable String filename, ClusteringRequest request)
+	{
+		request.setFilename(filename);
+		ClusteringJob job;
+		try
+		{
+			job = jobService.submit(request);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+		return "redirect:/clasificador/trabajos/" + job.getId();
+	}
+
+	/**
+	 * Encola una clasificacion y responde de inmediato con su estado, que incluye el
+	 * identificador con el que se consulta despues.
+	 */
+	@PostMapping("/trabajos")
+	@ResponseBody
+	public ResponseEntity<ClusteringJob> enviar(@RequestBody ClusteringRequest request)
 	{
 		try
 		{
-			DataSet dataSet = dataSetService.read(storageService.load(filename));
-			log.info("Original:\n{}", dataSet);
-
-			DataSet normalized;
-			if (method.equals("min-max"))
-				normalized = dataSet
-						.minMax(BigDecimal.ZERO, BigDecimal.ONE);
-			else if (method.equals("z-score"))
-				normalized = dataSet
-						.zScore();
-			else if (method.equals("decimal-scaling"))
-				normalized = dataSet
-						.decimalScaling();
-			else return "";
-
-			ClusterSet clusters;
-			if (centroids != null)
-			{;
-				clusters = normalized
-						.kMeans(dataSetService
-								.convertToRow(storageService
-										.loadAsResource(centroids)
-										.getFile().toPath()));
-			}
-			else
-				clusters = normalized
-						.kMeans(numberOfClusters);
-
-			log.info("------------------- k-means ---------------------------------");
-			log.info(clusters);
-
-			storageService.store(clusters.toString(), filename + "-clusters.txt");
-
-			model.addAttribute("filename", filename);
-			model.addAttribute("resultFilename", filename + "-clusters.txt");
-			model.addAttribute("clusters", clusters.toJson());
+			return ResponseEntity.accepted().body(jobService.submit(request));
 		}
-		catch (IOException e) {
-			throw new StorageFileNotFoundException("Could not read files: " + filename, e);
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.badRequest().build();
 		}
+	}
+
+	@GetMapping("/trabajos/{id}")
+	public String progreso(@PathVariable String id, Model model)
+	{
+		ClusteringJob job = getJob(id);
+		if (job.getPhase() == JobPhase.DONE)
+			return "redirect:/clasificador/trabajos/" + id + "/resultado";
+		model.addAttribute("job", job);
+		return "progreso-clasificacion";
+	}
+
+	/**
+	 * Retorna la etapa, la iteracion y la inercia de la clasificacion.
+	 */
+	@GetMapping("/trabajos/{id}/estado")
+	@ResponseBody
+	public ClusteringJob estado(@PathVariable String id)
+	{
+		return getJob(id);
+	}
+
+	/**
+	 * Muestra la grafica de la clasificacion con a lo mas points puntos por cluster; por
+	 * omision se usan los valores de ClasificadorProperties.Plot. points no puede exceder
+	 * Plot.maxPointsPerCluster, para que la pagina tenga un tamaño acotado.
+	 */
+	@GetMapping("/trabajos/{id}/resultado")
+	public String resultado(@PathVariable String id,
+	                        @RequestParam(required = false) Integer points,
+	                        @RequestParam(required = false) PlotSampling sampling,
+	                        Model model)
+	{
+		ClusteringJob job = getJob(id);
+		if (job.getPhase() != JobPhase.DONE)
+			return "redirect:/clasificador/trabajos/" + id;
+
+		Clustering clusters = getResult(job);
+		model.addAttribute("jobId", id);
+		model.addAttribute("filename", job.getRequest().getFilename());
+		model.addAttribute("resultFilename", job.getResultFilename());
+		int maxPoints = properties.getPlot().getMaxPointsPerCluster();
+		model.addAttribute("clusters", clusters.toJson(
+				points != null && points > 0 ? Math.min(points, maxPoints) : maxPoints,
+				sampling != null ? sampling : properties.getPlot().getSampling()));
+		model.addAttribute("skippedDistances", clusters.getSkippedDistances());
+		model.addAttribute("stopReason", clusters.getStopReason());
+		model.addAttribute("iterations", clusters.getIterations());
+		model.addAttribute("sweep", job.getSweep());
+		model.addAttribute("elbow", job.getElbow());
+		model.addAttribute("bestK", job.getBestK());
 		return "resultado-clasificacion";
 	}
 
+	/**
+	 * Envia las instancias clasificadas y los centroides escribiendolos directamente en la
+	 * respuesta, en formato NDJSON (una linea por centroide y por instancia) o JSON.
+	 */
+	@GetMapping("/trabajos/{id}/clusters")
+	public ResponseEntity<StreamingResponseBody> clusters(@PathVariable String id,
+	                                                      @RequestParam(defaultValue = "ndjson") String format)
+	{
+		ClusteringJob job = getJob(id);
+		if (job.getPhase() != JobPhase.DONE)
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "El trabajo " + id + " no ha terminado");
+
+		Clustering clusters = getResult(job);
+		if (format.equals("json"))
+			return ResponseEntity.ok()
+					.contentType(MediaType.APPLICATION_JSON_UTF8)
+					.body(out -> ClusteringJsonWriter.writeJson(clusters, out));
+		return ResponseEntity.ok()
+				.contentType(NDJSON)
+				.body(out -> ClusteringJsonWriter.writeNdjson(clusters, out));
+	}
+
+	private ClusteringJob getJob(String id)
+	{
+		ClusteringJob job = jobService.get(id);
+		if (job == null)
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe el trabajo " + id);
+		return job;
+	}
+
+	/**
+	 * Retorna el resultado en memoria de un trabajo terminado.
+	 *
+	 * @throws ResponseStatusException con GONE si el resultado ya se descarto de memoria;
+	 *                                 el archivo de resultado sigue disponible
+	 */
+	private Clustering getResult(ClusteringJob job)
+	{
+		Clustering clusters = job.getResult();
+		if (clusters == null)
+			throw new ResponseStatusException(HttpStatus.GONE, "El resultado del trabajo " + job.getId() +
+					" ya no esta en memoria; descargue /files/" + job.getResultFilename());
+		return clusters;
+	}
+
 	@ModelAttribute("normalizationMethods")
-	public String[] getNormalizationMethods() { return normalizationMethods; }
+	public String[] getNormalizationMethods() { return ClusteringJobService.getNormalizationMethods(); }
+
+	@ModelAttribute("storageModes")
+	public StorageMode[] getStorageModes() { return StorageMode.values(); }
+
+	@ModelAttribute("precisions")
+	public NumericPrecision[] getPrecisions() { return NumericPrecision.values(); }
+
+	@ModelAttribute("reportFormats")
+	public ReportFormat[] getReportFormats() { return ReportFormat.values(); }
+
+	@ModelAttribute("algorithms")
+	public KMeansAlgorithm[] getAlgorithms() { return KMeansAlgorithm.values(); }
+
+	@ModelAttribute("initializations")
+	public Initialization[] getInitializations() { return Initialization.values(); }
 }
@@ -0,0 +1,175 @@
+package mx.fcc.buap.clasificador.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Envia un archivo guardado como respuesta HTTP, con ETag y Last-Modified, respuestas 304
+ * a las peticiones condicionales y un rango de bytes cuando la peticion incluye Range.
+ * Si el cliente acepta gzip y junto al archivo hay una version ".gz" escrita con
+ * StorageService.store(filename, content, true), que se reconoce porque tiene la misma
+ * fecha de modificacion que el archivo, se envia esa version con Content-Encoding: gzip.
+ * Un ".gz" con otra fecha es un archivo independiente y no se usa como variante.
+ * <p>
+ * Cuando el contenedor lo permite (Tomcat con el conector NIO), el contenido se envia con
+ * sendfile: el hilo de la peticion termina de inmediato y el contenedor copia el archivo
+ * al socket con FileChannel.transferTo, sin pasar por el heap. En otro caso se copia con
+ * FileChannel.transferTo hacia el stream de la respuesta.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+final class FileTransfer
+{
+	private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private FileTransfer() {}
+
+	/**
+	 * Envia el archivo especificado, que debe existir.
+	 *
+	 * @param file el archivo
+	 * @param request la peticion
+	 * @param response la respuesta
+	 * @throws IOException si no se puede leer el archivo o escribir la respuesta
+	 */
+	static void send(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException
+	{
+		String contentType = Files.probeContentType(file);
+		Path source = file;
+		Path compressed = Paths.get(file + ".gz");
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (acceptsGzip(request) && Files.isRegularFile(compressed) &&
+				Files.getLastModifiedTime(compressed).equals(Files.getLastModifiedTime(file)))
+		{
+			source = compressed;
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+
+		long length = Files.size(source);
+		long lastModified = Files.getLastModifiedTime(source).toMillis();
+		String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) +
+				(source == compressed ? "-gz" : "") + "\"";
+		if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified))
+			return;
+
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				"attachment; filename=\"" + file.getFileName() + "\"");
+		response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+		long start = 0;
+		long end = length;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		if (range != null && matchesIfRange(request, etag, lastModified))
+		{
+			List<HttpRange> ranges;
+			try
+			{
+				ranges = HttpRange.parseRanges(range);
+				if (ranges.size() == 1)
+				{
+					start = ranges.get(0).getRangeStart(length);
+					end = Math.min(ranges.get(0).getRangeEnd(length), length - 1) + 1;
+					if (start >= end)
+						throw new IllegalArgumentException("Rango fuera del archivo: " + range);
+				}
+			}
+			catch (IllegalArgumentException e)
+			{
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+				return;
+			}
+			if (ranges.size() == 1)
+			{
+				response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+			}
+		}
+		response.setContentLengthLong(end - start);
+		if ("HEAD".equals(request.getMethod())) return;
+
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)))
+		{
+			request.setAttribute(SENDFILE_FILENAME, source.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ))
+		{
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			for (long position = start; position < end; )
+				position += channel.transferTo(position, end - position, out);
+		}
+	}
+
+	/**
+	 * Retorna true si Accept-Encoding incluye gzip con un valor q mayor que cero.
+	 */
+	static boolean acceptsGzip(HttpServletRequest request)
+	{
+		String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		if (accept == null) return false;
+		for (String coding : accept.split(","))
+		{
+			String[] parameters = coding.split(";");
+			if (!parameters[0].trim().equalsIgnoreCase("gzip")) continue;
+			for (int i = 1; i < parameters.length; i++)
+			{
+				String parameter = parameters[i].trim();
+				if (parameter.startsWith("q="))
+				{
+					try
+					{
+						return Double.parseDouble(parameter.substring(2)) > 0;
+					}
+					catch (NumberFormatException e)
+					{
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Retorna true si la peticion no tiene If-Range, o si su ETag o su fecha corresponden
+	 * al archivo; en otro caso se ignora Range y se envia el archivo completo.
+	 */
+	private static boolean matchesIfRange(HttpServletRequest request, String etag, long lastModified)
+	{
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (ifRange == null) return true;
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+		try
+		{
+			return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+		}
+		catch (IllegalArgumentException e)
+		{
+			return false;
+		}
+	}
+}
@@ -1,24 +1,36 @@
 package mx.fcc.buap.clasificador.controller;
 
+import mx.fcc.buap.clasificador.storage.ChunkedUploadService;
+import mx.fcc.buap.clasificador.storage.InvalidDataSetException;
 import mx.fcc.buap.clasificador.storage.StorageFileNotFoundException;
 import mx.fcc.buap.clasificador.storage.StorageService;
+import mx.fcc.buap.clasificador.storage.UploadSession;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 @Controller
 public class FileUploadController {
 
 	private final StorageService storageService;
+	private final ChunkedUploadService uploadService;
 
 	@Autowired
-	public FileUploadController(StorageService storageService) {
+	public FileUploadController(StorageService storageService, ChunkedUploadService uploadService) {
 		this.storageService = storageService;
+		this.uploadService = uploadService;
 	}
 
 	@GetMapping("/")
@@ -31,21 +43,78 @@ public class FileUploadController {
 	public String handleFileUpload(@RequestParam("file") MultipartFile file,
 	                               RedirectAttributes redirectAttributes) {
 
-		storageService.store(file);
+		storageService.storeDataSet(file);
 		redirectAttributes.addAttribute("filename", file.getOriginalFilename());
 		return "redirect:/clasificador";
 	}
 
+	/**
+	 * Descarga un archivo guardado, con soporte de Range, ETag y gzip (FileTransfer).
+	 */
 	@GetMapping("/files/{filename:.+}")
+	public void serveFile(@PathVariable String filename, HttpServletRequest request,
+	                      HttpServletResponse response) throws IOException {
+
+		Path file = storageService.load(filename);
+		if (filename.contains("..") || !Files.isRegularFile(file)) {
+			throw new StorageFileNotFoundException("Could not read files: " + filename);
+		}
+		FileTransfer.send(file, request, response);
+	}
+
+	/**
+	 * Inicia la carga por partes de un archivo. Las partes se envian despues con
+	 * PUT /uploads/{id}/chunks/{n}, en orden y empezando en 0, y la carga termina con
+	 * POST /uploads/{id}/complete. Para reanudar una carga se consulta GET /uploads/{id},
+	 * que indica la siguiente parte esperada (nextChunk).
+	 */
+	@PostMapping("/uploads")
+	@ResponseBody
+	public ResponseEntity<UploadSession> startUpload(@RequestParam String filename) throws IOException {
+		try {
+			return ResponseEntity.status(HttpStatus.CREATED).body(uploadService.start(filename));
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	@GetMapping("/uploads/{id}")
 	@ResponseBody
-	public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
+	public UploadSession uploadStatus(@PathVariable String id) {
+		return uploadService.get(id);
+	}
 
-		Resource file = storageService.loadAsResource(filename);
-		return ResponseEntity
-				.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION,
-						"attachment; filename=\"" + file.getFilename() + "\"")
-				.body(file);
+	/**
+	 * Recibe una parte como el cuerpo crudo de la peticion, sin multipart, por lo que no
+	 * aplica spring.servlet.multipart.max-file-size. No se aceptan cuerpos de formulario,
+	 * porque FormContentFilter los consume antes de llegar aqui.
+	 */
+	@PutMapping(value = "/uploads/{id}/chunks/{chunk}",
+			consumes = { MediaType.APPLICATION_OCTET_STREAM_VALUE, "text/csv", MediaType.TEXT_PLAIN_VALUE })
+	@ResponseBody
+	public UploadSession uploadChunk(@PathVariable String id, @PathVariable int chunk,
+	                                 HttpServletRequest request) throws IOException {
+		try {
+			return uploadService.append(id, chunk, request.getInputStream());
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+		catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+		}
+	}
+
+	@PostMapping("/uploads/{id}/complete")
+	@ResponseBody
+	public UploadSession completeUpload(@PathVariable String id) throws IOException {
+		try {
+			return uploadService.complete(id);
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
 	}
 
 	@ExceptionHandler(StorageFileNotFoundException.class)
@@ -53,4 +122,9 @@ public class FileUploadController {
 		return ResponseEntity.notFound().build();
 	}
 
+	@ExceptionHandler(InvalidDataSetException.class)
+	public ResponseEntity<String> handleInvalidDataSet(InvalidDataSetException exc) {
+		return ResponseEntity.badRequest().body(exc.getMessage());
+	}
+
 }
@@ -0,0 +1,22 @@
+package mx.fcc.buap.clasificador.domain;
+
+import java.io.IOException;
+
+/**
+ * Recibe cada instancia clasificada junto con el cluster al que se asigno.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@FunctionalInterface
+public interface AssignmentVisitor
+{
+	/**
+	 * @param row el numero de la instancia en el DataTable clasificado, empezando en 0
+	 * @param cluster el indice del cluster al que se asigno
+	 * @param values los valores de la instancia; el arreglo puede reutilizarse en la
+	 *               siguiente invocacion, por lo que no debe conservarse
+	 * @throws IOException si el visitante no puede escribir la instancia
+	 */
+	void visit(int row, int cluster, Number[] values) throws IOException;
+}
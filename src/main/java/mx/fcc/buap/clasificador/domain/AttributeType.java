@@ -1,17 +1,55 @@
 package mx.fcc.buap.clasificador.domain;
 
-import lombok.RequiredArgsConstructor;
-
+import java.math.BigDecimal;
 import java.util.Arrays;
 
 /**
  * @author Carlos Montoya
  * @since 20/04/2019
  */
-@RequiredArgsConstructor
 public class AttributeType
 {
 	private final int[] attributes;
+	private final CategoryDictionary[] dictionaries;
+
+	public AttributeType(int[] attributes)
+	{
+		this.attributes = attributes;
+		this.dictionaries = new CategoryDictionary[attributes.length];
+		for (int i = 0; i < attributes.length; i++)
+			if (attributes[i] != 0)
+				dictionaries[i] = new CategoryDictionary(attributes[i]);
+	}
+
+	/**
+	 * Retorna el numero de columnas.
+	 */
+	public int size() { return attributes.length; }
+
+	/**
+	 * Retorna el codigo del tipo de la columna: 0 si es numerica, o su numero de
+	 * categorias si es nominal.
+	 */
+	public int get(int column)
+	{
+		return attributes[column];
+	}
+
+	/**
+	 * Retorna el diccionario de categorias de la columna nominal especificada.
+	 */
+	public CategoryDictionary getDictionary(int column)
+	{
+		return dictionaries[column];
+	}
+
+	/**
+	 * Retorna el codigo de una categoria de la columna nominal especificada.
+	 */
+	public int encode(int column, BigDecimal value)
+	{
+		return dictionaries[column].encode(value);
+	}
 
 	public boolean isNumerical(int column)
 	{
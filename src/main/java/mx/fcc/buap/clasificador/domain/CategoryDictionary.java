@@ -0,0 +1,66 @@
+package mx.fcc.buap.clasificador.domain;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de las categorias de un atributo nominal: asigna a cada valor distinto un
+ * codigo entero pequeño, de modo que las categorias se cuentan en arreglos y se comparan
+ * como enteros. Las categorias 0 a n-1 que declara el encabezado del archivo reciben su
+ * propio valor como codigo; cualquier otro valor recibe el siguiente codigo libre.
+ * <p>
+ * Como BigDecimal.equals, dos valores con distinta escala (1 y 1.0) son categorias distintas.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class CategoryDictionary
+{
+	private final Map<BigDecimal, Integer> codes = new ConcurrentHashMap<>();
+	private final List<BigDecimal> values = new ArrayList<>();
+
+	public CategoryDictionary(int declaredCategories)
+	{
+		for (int code = 0; code < declaredCategories; code++)
+		{
+			BigDecimal value = BigDecimal.valueOf(code);
+			codes.put(value, code);
+			values.add(value);
+		}
+	}
+
+	/**
+	 * Retorna el codigo del valor especificado, y lo agrega al diccionario si no existe.
+	 *
+	 * @param value el valor de la categoria
+	 * @return el codigo de la categoria
+	 */
+	public int encode(BigDecimal value)
+	{
+		Integer code = codes.get(value);
+		return code != null ? code : add(value);
+	}
+
+	private synchronized int add(BigDecimal value)
+	{
+		Integer code = codes.get(value);
+		if (code != null) return code;
+		values.add(value);
+		codes.put(value, values.size() - 1);
+		return values.size() - 1;
+	}
+
+	/**
+	 * Retorna el valor de la categoria con el codigo especificado. La instancia retornada es
+	 * siempre la misma para cada codigo.
+	 */
+	public synchronized BigDecimal decode(int code) { return values.get(code); }
+
+	/**
+	 * Retorna el numero de categorias conocidas.
+	 */
+	public synchronized int size() { return values.size(); }
+}
@@ -1,14 +1,11 @@
 package mx.fcc.buap.clasificador.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import mx.fcc.buap.clasificador.tools.ColorTools;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * @author Carlos Montoya
@@ -19,34 +16,56 @@ public class Cluster extends DataSet
 {
 	private Row centroid;
 
+	@Getter(AccessLevel.NONE)
+	private final ClusterStatistics statistics;
+
 	public Cluster(DataSet dataSet, Row centroid)
 	{
-		super(dataSet.getAttributeType(), dataSet.getRowSize(), dataSet.getColumnSize());
+		super(dataSet.getAttributeType(), dataSet.getRowSize(), dataSet.getColumnSize(), false);
 		this.centroid = centroid;
+		setPrecision(dataSet.getPrecision());
+		this.statistics = new ClusterStatistics(dataSet.getAttributeType(), dataSet.getColumnSize());
 	}
 
+	/**
+	 * Agrega un DataRow a las sumas con las que se calcula el centroide. No lo agrega a
+	 * los DataRow de este Cluster.
+	 */
+	void addToCentroid(DataRow row) { statistics.add(row); }
+
+	/**
+	 * Quita un DataRow de las sumas con las que se calcula el centroide.
+	 */
+	void removeFromCentroid(DataRow row) { statistics.remove(row); }
+
 	public BigDecimal distanceToCentroid(DataRow row)
 	{
 		return row.distance(centroid);
 	}
 
+	public BigDecimal squaredDistanceToCentroid(DataRow row)
+	{
+		return row.squaredDistance(centroid);
+	}
+
 	public BigDecimal meanDistanceToCentroid()
 	{
 		BigDecimal sum = BigDecimal.ZERO;
 		for (DataRow r : this)
 			sum = sum.add(distanceToCentroid(r));
-		return sum.divide(new BigDecimal(getRowSize()), getPrecision() , RoundingMode.HALF_UP);
+		return getPrecision().divide(sum, new BigDecimal(getRowSize()));
 	}
 
 	/**
-	 * Asigna el centroide de este Cluster con el promedio de los DataRow que contiene, y
-	 * retorna un booleano indicando si el nuevo centroide es diferente del anterior.
+	 * Asigna el centroide de este Cluster con el promedio de los DataRow agregados con
+	 * addToCentroid, y retorna un booleano indicando si el nuevo centroide es diferente
+	 * del anterior. Las columnas nominales toman la moda, y en caso de empate el valor menor.
 	 *
 	 * @return si el centroide nuevo es diferente del anterior.
 	 */
 	public boolean recomputeCentroid()
 	{
-		Row averageRow = computeAverageRow();
+		Row averageRow = statistics.average(getPrecision());
 		if (centroid.equals(averageRow))
 			return false;
 		else
@@ -56,36 +75,13 @@ public class Cluster extends DataSet
 		}
 	}
 
-	public Map<String, Object> toJson(int firstColumn, int secondColumn, int thirdColumn)
-	{
-		Map<String, Object> map = new HashMap<>();
-		map.put("data", arrayGraficacion(firstColumn, secondColumn, thirdColumn));
-		map.put("color", ColorTools.getRandomColorRGB());
-		return map;
-	}
-
-	private Object[][] arrayGraficacion(int firstColumn, int secondColumn, int thirdColumn)
-	{
-		//String style = "point {size: 3; fill-color: " + rgbColor;
-		Object[][] data = new Object[getRowSize()][];
-		List<DataRow> rows = getRows();
-		for (int i = 0; i < getRowSize(); i++)
-			data[i] = new Object[]
-			{
-					firstColumn != -1? rows.get(i).get(firstColumn) : BigDecimal.ZERO,
-					firstColumn != -1? rows.get(i).get(secondColumn) : BigDecimal.ZERO,
-					firstColumn != -1? rows.get(i).get(thirdColumn) : BigDecimal.ZERO
-			};
-		return data;
-	}
-
 	@Override
-	public String toString()
+	void appendTo(Appendable out, int maxRows) throws IOException
 	{
-		return "Cluster{\n" +
-				"centroid=" + centroid + "\n" +
-				super.toString() +
-				"} ";
+		out.append("Cluster{\n")
+				.append("centroid=").append(String.valueOf(centroid)).append("\n");
+		super.appendTo(out, maxRows);
+		out.append("} ");
 	}
 
 	@Override
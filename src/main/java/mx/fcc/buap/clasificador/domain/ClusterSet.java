@@ -1,33 +1,61 @@
 package mx.fcc.buap.clasificador.domain;
 
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.kmeans.Initialization;
+import mx.fcc.buap.clasificador.kmeans.Seeding;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Carlos Montoya
  * @since 25/04/2019
  */
 @Log4j2
-public class ClusterSet implements Iterable<Cluster>
+public class ClusterSet implements Clustering, Iterable<Cluster>
 {
 	private final DataSet dataSet;
 	private final Set<Cluster> clusters;
+	private final Map<Cluster, Integer> indices = new IdentityHashMap<>();
+	private Cluster[] membership = new Cluster[0];
+	@Getter private double centroidShift;
+	@Getter private StopReason stopReason;
+	@Getter private int iterations;
 
 	public ClusterSet(DataSet dataSet, Set<Row> centroids)
 	{
 		this.dataSet = dataSet;
 		this.clusters = createEmptyClusters(centroids);
+		this.clusters.forEach(c -> indices.put(c, indices.size()));
 	}
 
 	public ClusterSet(DataSet dataSet, int k)
+	{
+		this(dataSet, k, new Random());
+	}
+
+	public ClusterSet(DataSet dataSet, int k, Random random)
+	{
+		this(dataSet, k, Initialization.RANDOM, random, null);
+	}
+
+	/**
+	 * Crea k clusters vacios cuyos centroides son instancias del DataSet escogidas con
+	 * la estrategia especificada.
+	 *
+	 * @param pool el pool en el que se calculan las distancias de la estrategia, o null
+	 *             para usar el hilo actual
+	 */
+	public ClusterSet(DataSet dataSet, int k, Initialization initialization, Random random, ForkJoinPool pool)
 	{
 		this.dataSet = dataSet;
-		this.clusters = createEmptyClusters(getRandomCentroids(k));
+		this.clusters = createEmptyClusters(getInitialCentroids(k, initialization, random, pool));
+		this.clusters.forEach(c -> indices.put(c, indices.size()));
 	}
 
 	private Set<Cluster> createEmptyClusters(Set<Row> centroids)
@@ -38,104 +66,256 @@ public class ClusterSet implements Iterable<Cluster>
 			return centroids
 					.stream()
 					.map(r -> new Cluster(dataSet, r))
-					.collect(Collectors.toSet());
+					.collect(Collectors.toCollection(LinkedHashSet::new));
 	}
 
-	private Set<Row> getRandomCentroids(int k)
+	private Set<Row> getInitialCentroids(int k, Initialization initialization, Random random, ForkJoinPool pool)
 	{
-		int dataSetSize = dataSet.getRowSize();
-		if (dataSetSize < k) return Collections.emptySet();
-
-		Set<Row> centroids = new HashSet<>(k);
-		while (centroids.size() < k)
-			centroids
-					.add(dataSet
-							.get( (int) (Math.random() * dataSetSize)) );
+		int[] indices = Seeding.choose(initialization, dataSet.getRowSize(), k,
+				(a, b) -> ((DataRow) dataSet.get(a)).squaredDistance(dataSet.get(b)).doubleValue(),
+				random, pool);
+		Set<Row> centroids = new LinkedHashSet<>(k);
+		for (int index : indices)
+			centroids.add(dataSet.get(index));
 		return centroids;
 	}
 
-	public void assignRowToClosestCluster(DataRow row)
+	/**
+	 * Busca el cluster con el centroide mas cercano a cada DataRow, y actualiza las sumas
+	 * de los centroides solo con los DataRow que cambiaron de cluster. Los DataRow no se
+	 * agregan a los clusters hasta invocar fillClusters. Si se especifica un pool, la
+	 * busqueda del cluster mas cercano se reparte entre sus hilos.
+	 *
+	 * @param rows los DataRow a asignar, siempre en el mismo orden
+	 * @param pool el pool en el que se buscan los clusters, o null para usar el hilo actual
+	 * @return el numero de DataRow que cambiaron de cluster
+	 */
+	public int assignRowsToClosestClusters(List<DataRow> rows, ForkJoinPool pool)
+	{
+		if (membership.length != rows.size())
+			membership = new Cluster[rows.size()];
+
+		Cluster[] nearest = pool == null ?
+				rows.stream().map(this::getClosestCluster).toArray(Cluster[]::new) :
+				pool.submit(() -> rows.parallelStream()
+						.map(this::getClosestCluster)
+						.toArray(Cluster[]::new))
+						.join();
+		int moved = 0;
+		for (int i = 0; i < nearest.length; i++)
+		{
+			if (nearest[i] == membership[i]) continue;
+			DataRow row = rows.get(i);
+			if (membership[i] != null) membership[i].removeFromCentroid(row);
+			if (nearest[i] != null) nearest[i].addToCentroid(row);
+			membership[i] = nearest[i];
+			moved++;
+		}
+		return moved;
+	}
+
+	@Override
+	public long getMemorySize()
+	{
+		// membership y la lista de cada cluster guardan una referencia por instancia
+		return dataSet.getMemorySize() + 2L * membership.length * Long.BYTES;
+	}
+
+	/**
+	 * Retorna la suma de los cuadrados de las distancias de cada DataRow al centroide del
+	 * cluster que le asigno la ultima invocacion de assignRowsToClosestClusters.
+	 */
+	@Override
+	public double getInertia()
+	{
+		List<DataRow> rows = dataSet.getRows();
+		BigDecimal inertia = BigDecimal.ZERO;
+		for (int i = 0; i < membership.length; i++)
+			if (membership[i] != null)
+				inertia = inertia.add(membership[i].squaredDistanceToCentroid(rows.get(i)));
+		return inertia.doubleValue();
+	}
+
+	/**
+	 * Agrega cada DataRow al cluster que le asigno la ultima invocacion de
+	 * assignRowsToClosestClusters.
+	 *
+	 * @param rows los DataRow asignados, en el mismo orden
+	 */
+	public void fillClusters(List<DataRow> rows)
+	{
+		clearAll();
+		for (int i = 0; i < membership.length; i++)
+			if (membership[i] != null) membership[i].add(rows.get(i));
+	}
+
+	private Cluster getClosestCluster(DataRow row)
 	{
 		Cluster nearest = null;
 		BigDecimal min = BigDecimal.valueOf(Long.MAX_VALUE);
 		for (Cluster cluster : clusters)
 		{
-			BigDecimal distance = cluster.distanceToCentroid(row);
+			BigDecimal distance = cluster.squaredDistanceToCentroid(row);
 			if (distance.compareTo(min) < 0)
 			{
 				nearest = cluster;
 				min = distance;
 			}
 		}
-		if (nearest != null) nearest.add(row);
+		return nearest;
 	}
 
 	/**
 	 * Recalcula los centroides de los clusters y retorna true si alguno de ellos
-	 * cambio.
+	 * cambio. La mayor distancia que se movio un centroide queda en getCentroidShift.
 	 *
 	 * @return si alguno de los centroides cambio
 	 */
 	public boolean recomputeCentroids()
 	{
-		return clusters.stream()
-				.map(Cluster::recomputeCentroid)
-				.filter(b -> b)
-				.findFirst()
-				.orElse(false);
+		boolean changed = false;
+		double shift = 0;
+		for (Cluster cluster : clusters)
+		{
+			Row previous = cluster.getCentroid();
+			if (cluster.recomputeCentroid())
+			{
+				changed = true;
+				shift = Math.max(shift, squaredShift(previous, cluster.getCentroid()));
+			}
+		}
+		centroidShift = Math.sqrt(shift);
+		return changed;
+	}
+
+	/**
+	 * Calcula el cuadrado de la distancia entre dos centroides, escalando las diferencias
+	 * numericas por el rango de su columna igual que DataRow.distance.
+	 */
+	private double squaredShift(Row previous, Row current)
+	{
+		Row range = dataSet.getRangeRow();
+		double sum = 0;
+		for (int i = 0; i < current.size(); i++)
+		{
+			if (dataSet.isNominal(i))
+			{
+				if (!previous.get(i).equals(current.get(i))) sum += 1;
+			}
+			else if (range.get(i).signum() != 0)
+			{
+				double d = previous.get(i).subtract(current.get(i)).doubleValue() / range.get(i).doubleValue();
+				sum += d * d;
+			}
+		}
+		return sum;
+	}
+
+	void stopped(StopReason reason, int iterations)
+	{
+		this.stopReason = reason;
+		this.iterations = iterations;
 	}
 
 	public void clearAll() { clusters.forEach(DataSet::clear); }
 
-	public List<Map<String, Object>> toJson()
+	@Override
+	public int size() { return clusters.size(); }
+
+	@Override
+	public int getClusterSize(int cluster) { return clusterAt(cluster).getRowSize(); }
+
+	@Override
+	public Number[] getCentroidValues(int cluster)
 	{
-		if (clusters.isEmpty())
-			return Collections.emptyList();
+		Row centroid = clusterAt(cluster).getCentroid();
+		Number[] values = new Number[centroid.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = centroid.get(i);
+		return values;
+	}
 
+	@Override
+	public void forEachAssignment(AssignmentVisitor visitor) throws IOException
+	{
+		List<DataRow> rows = dataSet.getRows();
+		Number[] values = new Number[dataSet.getColumnSize()];
+		for (int r = 0; r < membership.length; r++)
+		{
+			if (membership[r] == null) continue;
+			DataRow row = rows.get(r);
+			for (int i = 0; i < values.length; i++)
+				values[i] = row.get(i);
+			visitor.visit(r, indices.get(membership[r]), values);
+		}
+	}
+
+	@Override
+	public int getCluster(int row)
+	{
+		return row < membership.length && membership[row] != null ? indices.get(membership[row]) : -1;
+	}
+
+	@Override
+	public double squaredDistanceToCentroid(int row)
+	{
+		return membership[row].squaredDistanceToCentroid(dataSet.getRows().get(row)).doubleValue();
+	}
+
+	private Cluster clusterAt(int index)
+	{
+		Iterator<Cluster> it = clusters.iterator();
+		for (int i = 0; i < index; i++) it.next();
+		return it.next();
+	}
+
+	/**
+	 * Retorna las tres primeras columnas de getSortedColumns.
+	 */
+	@Override
+	public int[] getPlottedColumns()
+	{
 		int[] sortedColumns = getSortedColumns();
-		return clusters.stream()
-				.map(c -> c
-						.toJson(sortedColumns[0],
-								sortedColumns[1],
-								sortedColumns[2]))
-				.collect(Collectors.toList());
-	}
-
-	private int[] getSortedColumns()
-	{
-		AtomicInteger columnSize = new AtomicInteger(0);
-		clusters.stream().findFirst().ifPresent(c -> columnSize.set(c.getColumnSize()));
-
-		BigDecimal[] distances = new BigDecimal[columnSize.get()];
-		Arrays.fill(distances, BigDecimal.ZERO);
-		for (Cluster c : clusters)
-			for (int i = 0; i < distances.length; i++)
-				distances[i] = distances[i]
-						.add(c.meanDistanceToCentroid());
-
-		int[] sortedIndices = IntStream
-				.range(0, distances.length)
-				.boxed()
-				.sorted(Comparator.comparing(i -> distances[i]))
-				.mapToInt(ele -> ele)
-				.toArray();
-		log.info("Total sum mean distances : {}", Arrays.toString(distances));
-		log.info("Sorted column indices : {}", Arrays.toString(sortedIndices));
+		int[] columns = new int[3];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = i < sortedColumns.length ? sortedColumns[i] : -1;
+		return columns;
+	}
+
+	/**
+	 * Retorna los indices de las columnas ordenados de menor a mayor dispersion dentro de
+	 * los clusters, relativa a la dispersion de toda la columna (ColumnDispersion). Las
+	 * primeras columnas son las que mejor separan a los clusters.
+	 */
+	public int[] getSortedColumns()
+	{
+		Row average = dataSet.getStatistics().getAverageRow(dataSet.getPrecision());
+		double[] center = new double[average.size()];
+		for (int i = 0; i < center.length; i++)
+			center[i] = average.get(i).doubleValue();
 
+		double[] dispersion = ColumnDispersion.of(this, dataSet.getAttributeType(), center);
+		int[] sortedIndices = ColumnDispersion.sort(dispersion);
+		log.debug("Dispersion de cada columna: {}", Arrays.toString(dispersion));
+		log.debug("Columnas ordenadas: {}", Arrays.toString(sortedIndices));
 		return sortedIndices;
-		//return new int[]{2, 3, 21};
 	}
 
 	@Override
 	public Iterator<Cluster> iterator() { return clusters.iterator(); }
 
 	@Override
-	public String toString()
+	public String toString() { return toString(Integer.MAX_VALUE); }
+
+	@Override
+	public void appendTo(Appendable out, int maxRows) throws IOException
 	{
-		StringBuilder sb = new StringBuilder();
-		clusters.forEach(c -> sb.append(c).append("\n"));
-		return "ClusterSet{" +
-				"clusters={\n" + sb.toString() + "}" +
-				'}';
+		out.append("ClusterSet{clusters={\n");
+		for (Cluster cluster : clusters)
+		{
+			cluster.appendTo(out, maxRows);
+			out.append("\n");
+		}
+		out.append("}}");
 	}
 }
@@ -0,0 +1,91 @@
+package mx.fcc.buap.clasificador.domain;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * Sumas acumuladas de las instancias de un Cluster: la suma de cada columna numerica, la
+ * frecuencia de cada categoria de las columnas nominales, indexada por su codigo, y el numero de instancias. Agregar
+ * o quitar una instancia cuesta O(columnas), por lo que el centroide se recalcula sin
+ * volver a recorrer las instancias del cluster.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+class ClusterStatistics
+{
+	private final AttributeType attributeType;
+	private final BigDecimal[] sums;
+	private final int[][] counts;
+	private int count;
+
+	ClusterStatistics(AttributeType attributeType, int columnSize)
+	{
+		this.attributeType = attributeType;
+		this.sums = new BigDecimal[columnSize];
+		this.counts = new int[columnSize][];
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (attributeType.isNominal(i)) counts[i] = new int[attributeType.getDictionary(i).size()];
+			else sums[i] = ZERO;
+		}
+	}
+
+	void add(DataRow row)
+	{
+		for (int i = 0; i < sums.length; i++)
+		{
+			if (counts[i] != null)
+			{
+				int code = row.getCode(i);
+				if (code >= counts[i].length)
+					counts[i] = Arrays.copyOf(counts[i], Math.max(code + 1, 2 * counts[i].length));
+				counts[i][code]++;
+			}
+			else sums[i] = sums[i].add(row.get(i));
+		}
+		count++;
+	}
+
+	void remove(DataRow row)
+	{
+		for (int i = 0; i < sums.length; i++)
+		{
+			if (counts[i] != null) counts[i][row.getCode(i)]--;
+			else sums[i] = sums[i].subtract(row.get(i));
+		}
+		count--;
+	}
+
+	int getCount() { return count; }
+
+	/**
+	 * Calcula el promedio de cada columna numerica y la moda de cada columna nominal; en
+	 * caso de empate la moda es la categoria con el codigo menor. Si no hay instancias,
+	 * todos los valores son cero.
+	 *
+	 * @param precision la precision del promedio
+	 * @return un Row nuevo con los promedios y las modas
+	 */
+	Row average(NumericPrecision precision)
+	{
+		BigDecimal[] average = new BigDecimal[sums.length];
+		for (int i = 0; i < sums.length; i++)
+		{
+			if (count == 0) average[i] = ZERO;
+			else if (counts[i] != null) average[i] = attributeType.getDictionary(i).decode(mode(counts[i]));
+			else average[i] = precision.divide(sums[i], new BigDecimal(count));
+		}
+		return new Row(average);
+	}
+
+	static int mode(int[] counts)
+	{
+		int mode = 0;
+		for (int code = 1; code < counts.length; code++)
+			if (counts[code] > counts[mode]) mode = code;
+		return mode;
+	}
+}
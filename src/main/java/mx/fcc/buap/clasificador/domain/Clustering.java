@@ -0,0 +1,151 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una clasificacion k-means, independiente del modelo de almacenamiento
+ * de la tabla clasificada.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public interface Clustering
+{
+	/**
+	 * Retorna la representacion de los clusters que se envia a la grafica de resultados,
+	 * con todos los puntos de cada cluster.
+	 *
+	 * @return la lista de clusters para graficar
+	 * @see #toJson(int, PlotSampling)
+	 */
+	default List<Map<String, Object>> toJson() { return toJson(Integer.MAX_VALUE, PlotSampling.STRATIFIED); }
+
+	/**
+	 * Retorna la representacion de los clusters que se envia a la grafica de resultados:
+	 * una lista con un mapa por cluster, con a lo mas maxPointsPerCluster puntos ("data"),
+	 * el color ("color"), el nombre ("name"), el numero de instancias ("count") y el
+	 * centroide ("centroid"), proyectados en las columnas de getPlottedColumns.
+	 *
+	 * @param maxPointsPerCluster el numero maximo de puntos de cada cluster
+	 * @param sampling la forma de escoger los puntos de los clusters con mas instancias
+	 * @return la lista de clusters para graficar
+	 */
+	default List<Map<String, Object>> toJson(int maxPointsPerCluster, PlotSampling sampling)
+	{
+		if (size() == 0)
+			return Collections.emptyList();
+		return PlotSampler.sample(this, getPlottedColumns(), maxPointsPerCluster, sampling);
+	}
+
+	/**
+	 * Retorna las tres columnas que se grafican; -1 si el DataTable tiene menos de tres
+	 * columnas.
+	 */
+	int[] getPlottedColumns();
+
+	/**
+	 * Retorna el numero de distancias entre instancias y centroides que el algoritmo no
+	 * necesito calcular.
+	 *
+	 * @return las distancias evitadas, o 0 si el algoritmo compara todas las instancias
+	 */
+	default long getSkippedDistances() { return 0; }
+
+	/**
+	 * Retorna la suma de los cuadrados de las distancias de cada instancia al centroide
+	 * de su cluster.
+	 *
+	 * @return la inercia de la clasificacion
+	 */
+	double getInertia();
+
+	/**
+	 * Retorna una aproximacion de los bytes que ocupa esta clasificacion en el heap,
+	 * incluida la tabla que clasifica.
+	 */
+	long getMemorySize();
+
+	/**
+	 * Retorna el criterio que detuvo k-means, o null si no se ha ejecutado.
+	 */
+	StopReason getStopReason();
+
+	/**
+	 * Retorna el numero de iteraciones que ejecuto k-means.
+	 */
+	int getIterations();
+
+	/**
+	 * Retorna el numero de clusters.
+	 */
+	int size();
+
+	/**
+	 * Retorna el numero de instancias asignadas al cluster especificado.
+	 */
+	int getClusterSize(int cluster);
+
+	/**
+	 * Retorna el indice del cluster al que se asigno la instancia especificada, o -1 si
+	 * no se asigno.
+	 */
+	int getCluster(int row);
+
+	/**
+	 * Retorna el cuadrado de la distancia de la instancia especificada al centroide de su
+	 * cluster.
+	 */
+	double squaredDistanceToCentroid(int row);
+
+	/**
+	 * Retorna los valores del centroide del cluster especificado, en el orden de las
+	 * columnas.
+	 */
+	Number[] getCentroidValues(int cluster);
+
+	/**
+	 * Representa esta clasificacion con el centroide y el numero de instancias de cada
+	 * cluster, y a lo mas maxRows instancias por cluster.
+	 *
+	 * @param maxRows el numero maximo de instancias de cada cluster a incluir
+	 * @return la representacion textual de esta clasificacion
+	 */
+	default String toString(int maxRows)
+	{
+		StringBuilder sb = new StringBuilder();
+		try
+		{
+			appendTo(sb, maxRows);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Escribe la representacion de toString(int) directamente en el Appendable
+	 * especificado, instancia por instancia, sin construirla antes en memoria.
+	 *
+	 * @param out el destino
+	 * @param maxRows el numero maximo de instancias de cada cluster a incluir
+	 * @throws IOException si no se puede escribir en el destino
+	 */
+	void appendTo(Appendable out, int maxRows) throws IOException;
+
+	/**
+	 * Recorre todas las instancias clasificadas en el orden del DataTable sin copiarlas,
+	 * de modo que el resultado se puede escribir con memoria constante.
+	 *
+	 * @param visitor recibe cada instancia con el indice de su cluster
+	 * @throws IOException si el visitante no puede escribir una instancia
+	 */
+	void forEachAssignment(AssignmentVisitor visitor) throws IOException;
+}
@@ -0,0 +1,102 @@
+package mx.fcc.buap.clasificador.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Dispersion de cada columna dentro de los clusters, relativa a su dispersion en todo el
+ * DataTable. En las columnas numericas es la suma de los cuadrados de las diferencias de
+ * cada instancia con el centroide de su cluster, dividida entre la suma de los cuadrados
+ * de las diferencias con el promedio de la columna; en las nominales es el numero de
+ * instancias distintas de la moda de su cluster, dividido entre el numero de instancias
+ * distintas de la moda de la columna. Un valor cercano a 0 indica que la columna separa
+ * bien a los clusters. Se calcula en una sola pasada sobre las instancias clasificadas.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+final class ColumnDispersion
+{
+	private ColumnDispersion() {}
+
+	/**
+	 * Calcula la dispersion relativa de cada columna.
+	 *
+	 * @param clusters la clasificacion
+	 * @param type los tipos de las columnas
+	 * @param center el promedio de cada columna numerica y la moda de cada nominal, de
+	 *               todas las instancias
+	 * @return la dispersion de cada columna; NaN si la columna es constante
+	 */
+	static double[] of(Clustering clusters, AttributeType type, double[] center)
+	{
+		int k = clusters.size();
+		double[][] centroids = new double[k][];
+		for (int c = 0; c < k; c++)
+		{
+			Number[] values = clusters.getCentroidValues(c);
+			centroids[c] = new double[values.length];
+			for (int i = 0; i < values.length; i++)
+				centroids[c][i] = values[i].doubleValue();
+		}
+
+		double[] within = new double[center.length];
+		double[] total = new double[center.length];
+		try
+		{
+			clusters.forEachAssignment((row, cluster, values) -> {
+				for (int i = 0; i < within.length; i++)
+				{
+					double value = values[i].doubleValue();
+					within[i] += difference(type.isNominal(i), value, centroids[cluster][i]);
+					total[i] += difference(type.isNominal(i), value, center[i]);
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		double[] dispersion = new double[center.length];
+		for (int i = 0; i < dispersion.length; i++)
+			dispersion[i] = total[i] > 0 ? within[i] / total[i] : Double.NaN;
+		return dispersion;
+	}
+
+	/**
+	 * Retorna los indices de las columnas ordenados de menor a mayor dispersion; las
+	 * columnas constantes quedan al final.
+	 */
+	static int[] sort(double[] dispersion)
+	{
+		return IntStream
+				.range(0, dispersion.length)
+				.boxed()
+				.sorted(Comparator.comparingDouble(i -> Double.isNaN(dispersion[i]) ? Double.MAX_VALUE : dispersion[i]))
+				.mapToInt(i -> i)
+				.toArray();
+	}
+
+	/**
+	 * Retorna las tres columnas con menor dispersion, o -1 en los ejes que sobran si hay
+	 * menos de tres columnas.
+	 */
+	static int[] plotted(double[] dispersion)
+	{
+		int[] sorted = sort(dispersion);
+		int[] columns = new int[3];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = i < sorted.length ? sorted[i] : -1;
+		return columns;
+	}
+
+	private static double difference(boolean nominal, double value, double center)
+	{
+		if (nominal) return value == center ? 0 : 1;
+		double d = value - center;
+		return d * d;
+	}
+}
@@ -0,0 +1,233 @@
+package mx.fcc.buap.clasificador.domain;
+
+import lombok.Getter;
+import mx.fcc.buap.clasificador.kmeans.AssignmentTask;
+import mx.fcc.buap.clasificador.kmeans.DistanceBounds;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.MiniBatch;
+import mx.fcc.buap.clasificador.kmeans.PartialSums;
+import mx.fcc.buap.clasificador.kmeans.SquaredDistance;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Conjunto de clusters de un ColumnarDataSet. En lugar de copiar las instancias a cada
+ * cluster, guarda el indice del cluster asignado a cada instancia y los centroides como
+ * arreglos double[], donde las columnas nominales guardan el codigo de su categoria.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class ColumnarClusterSet implements Clustering
+{
+	private final ColumnarDataSet dataSet;
+	private final double[][] centroids;
+	private final int[] assignment;
+	private int[] counts;
+	private final SquaredDistance distance;
+	private PartialSums partialSums;
+	private final DistanceBounds bounds;
+	@Getter private long skippedDistances;
+	@Getter private double centroidShift;
+	@Getter private StopReason stopReason;
+	@Getter private int iterations;
+
+	public ColumnarClusterSet(ColumnarDataSet dataSet, double[][] centroids)
+	{
+		this(dataSet, centroids, KMeansAlgorithm.LLOYD);
+	}
+
+	public ColumnarClusterSet(ColumnarDataSet dataSet, double[][] centroids, KMeansAlgorithm algorithm)
+	{
+		this.dataSet = dataSet;
+		this.centroids = centroids;
+		this.distance = new SquaredDistance(dataSet);
+		this.assignment = new int[dataSet.getRowSize()];
+		this.counts = new int[centroids.length];
+		this.bounds = algorithm == KMeansAlgorithm.HAMERLY ?
+				new DistanceBounds(distance, assignment.length, centroids.length) : null;
+		Arrays.fill(assignment, -1);
+	}
+
+	/**
+	 * Asigna cada instancia al cluster con el centroide mas cercano, y retorna true si
+	 * alguna instancia cambio de cluster. Al mismo tiempo acumula las sumas por cluster
+	 * con las que recomputeCentroids calcula los centroides nuevos.
+	 *
+	 * @param pool el pool entre cuyos hilos se reparten las instancias, o null para
+	 *             asignarlas en el hilo actual
+	 * @return si alguna instancia cambio de cluster
+	 */
+	public boolean assignRowsToClosestClusters(ForkJoinPool pool)
+	{
+		if (centroids.length == 0) return false;
+
+		partialSums = AssignmentTask.assign(dataSet, distance, centroids, assignment, bounds, pool);
+		counts = partialSums.getCounts();
+		skippedDistances += partialSums.getSkipped();
+		return partialSums.getMoved() > 0;
+	}
+
+	/**
+	 * Asigna a cada centroide el promedio de las instancias de su cluster; en las columnas
+	 * nominales asigna la moda. Los clusters vacios conservan su centroide. La mayor
+	 * distancia que se movio un centroide queda en getCentroidShift.
+	 */
+	public void recomputeCentroids()
+	{
+		if (partialSums == null) return;
+		double[][] previous = new double[centroids.length][];
+		for (int c = 0; c < centroids.length; c++)
+			previous[c] = centroids[c].clone();
+		partialSums.updateCentroids(centroids);
+		if (bounds != null) bounds.update(previous, centroids);
+
+		double shift = 0;
+		for (int c = 0; c < centroids.length; c++)
+			shift = Math.max(shift, distance.between(previous[c], centroids[c]));
+		centroidShift = Math.sqrt(shift);
+	}
+
+	void stopped(StopReason reason, int iterations)
+	{
+		this.stopReason = reason;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Mueve los centroides con el metodo de lotes pequeños. Las instancias no se asignan;
+	 * para eso se invoca despues assignRowsToClosestClusters.
+	 *
+	 * @param batchSize el numero de instancias de cada muestra
+	 * @param iterations el numero de muestras
+	 * @param random el generador con el que se toman las muestras
+	 */
+	public void miniBatch(int batchSize, int iterations, Random random)
+	{
+		new MiniBatch(dataSet, distance, centroids).run(batchSize, iterations, random);
+		partialSums = null;
+	}
+
+	@Override
+	public long getMemorySize()
+	{
+		long bytes = dataSet.getMemorySize() + (long) assignment.length * Integer.BYTES;
+		// cotas superior e inferior de cada instancia
+		if (bounds != null) bytes += 2L * assignment.length * Double.BYTES;
+		return bytes;
+	}
+
+	/**
+	 * Retorna la suma de los cuadrados de las distancias de cada instancia a su centroide.
+	 */
+	@Override
+	public double getInertia()
+	{
+		double inertia = 0;
+		for (int r = 0; r < assignment.length; r++)
+			if (assignment[r] != -1) inertia += distance.between(r, centroids[assignment[r]]);
+		return inertia;
+	}
+
+	@Override
+	public int size() { return centroids.length; }
+
+	public double[] getCentroid(int cluster) { return centroids[cluster]; }
+
+	@Override
+	public int getClusterSize(int cluster) { return counts[cluster]; }
+
+	/**
+	 * Retorna los valores del centroide; las columnas nominales se retornan como el codigo
+	 * entero de su categoria.
+	 */
+	@Override
+	public Number[] getCentroidValues(int cluster)
+	{
+		Number[] values = new Number[centroids[cluster].length];
+		for (int i = 0; i < values.length; i++)
+			values[i] = value(i, centroids[cluster][i]);
+		return values;
+	}
+
+	@Override
+	public void forEachAssignment(AssignmentVisitor visitor) throws IOException
+	{
+		Number[] values = new Number[dataSet.getColumnSize()];
+		for (int r = 0; r < assignment.length; r++)
+		{
+			if (assignment[r] == -1) continue;
+			for (int i = 0; i < values.length; i++)
+				values[i] = value(i, dataSet.get(r, i));
+			visitor.visit(r, assignment[r], values);
+		}
+	}
+
+	private Number value(int column, double value)
+	{
+		return dataSet.isNominal(column) ? (Number) dataSet.getCategory(column, (int) value) : (Number) value;
+	}
+
+	/**
+	 * Retorna el indice del cluster al que pertenece la instancia especificada.
+	 */
+	@Override
+	public int getCluster(int row) { return assignment[row]; }
+
+	@Override
+	public double squaredDistanceToCentroid(int row)
+	{
+		return distance.between(row, centroids[assignment[row]]);
+	}
+
+	/**
+	 * Retorna las tres columnas con menor dispersion dentro de los clusters relativa a la
+	 * dispersion de toda la columna (ColumnDispersion).
+	 */
+	@Override
+	public int[] getPlottedColumns()
+	{
+		ColumnarStatistics statistics = dataSet.getStatistics();
+		double[] center = statistics.getAverageRow();
+		for (int i = 0; i < center.length; i++)
+			if (dataSet.isNominal(i)) center[i] = dataSet.getCategory(i, statistics.getMode(i)).doubleValue();
+		return ColumnDispersion.plotted(ColumnDispersion.of(this, dataSet.getAttributeType(), center));
+	}
+
+	@Override
+	public String toString() { return toString(Integer.MAX_VALUE); }
+
+	/**
+	 * Escribe cada cluster con sus instancias. Las instancias de cada cluster se buscan
+	 * recorriendo la asignacion, por lo que no se copian.
+	 */
+	@Override
+	public void appendTo(Appendable out, int maxRows) throws IOException
+	{
+		out.append("ClusterSet{clusters={\n");
+		for (int c = 0; c < centroids.length; c++)
+		{
+			out.append("Cluster{\n")
+					.append("centroid=Row(attributes=").append(Arrays.toString(getCentroidValues(c))).append(")\n")
+					.append("DataSet{\n")
+					.append("rowSize=").append(String.valueOf(counts[c])).append("\n")
+					.append("columnSize=").append(String.valueOf(dataSet.getColumnSize())).append("\n")
+					.append("attributeType=").append(String.valueOf(dataSet.getAttributeType())).append("\n")
+					.append("rows={\n");
+			int written = 0;
+			for (int r = 0; r < assignment.length && written < maxRows; r++)
+				if (assignment[r] == c)
+				{
+					dataSet.appendRow(out, r).append("\n");
+					written++;
+				}
+			if (written < counts[c])
+				out.append("... ").append(String.valueOf(counts[c] - written)).append(" instancias mas\n");
+			out.append("}}} \n");
+		}
+		out.append("}}");
+	}
+}
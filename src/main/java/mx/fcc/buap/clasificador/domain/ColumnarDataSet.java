@@ -0,0 +1,618 @@
+package mx.fcc.buap.clasificador.domain;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.kmeans.Restarts;
+import mx.fcc.buap.clasificador.kmeans.Seeding;
+import mx.fcc.buap.clasificador.kmeans.SquaredDistance;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+import mx.fcc.buap.clasificador.kmeans.StoppingCriteria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Conjunto de datos almacenado por columnas: cada atributo numerico se guarda en un
+ * DoubleBuffer y cada atributo nominal en un IntBuffer con el codigo de su categoria.
+ * Evita crear un BigDecimal por valor y un DataRow por instancia, por lo que ocupa una
+ * fraccion de la memoria de un DataSet y sus operaciones no crean objetos por cada valor.
+ * <p>
+ * Las columnas son arreglos del heap cuando el conjunto se construye con add, o regiones
+ * de un archivo mapeado en memoria cuando se carga de su formato binario. Los conjuntos
+ * normalizados comparten con su origen las columnas que no cambian, por lo que add solo
+ * debe usarse al construir un conjunto. Mientras se construye con add, las estadisticas
+ * de las columnas se acumulan instancia por instancia, por lo que normalizar el conjunto
+ * recien leido no requiere otra pasada.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Log4j2
+public class ColumnarDataSet implements DataTable
+{
+	@Getter private final AttributeType attributeType;
+	@Getter private final int columnSize;
+	@Getter private int rowSize;
+
+	private final DoubleBuffer[] numerical;
+	private final IntBuffer[] nominal;
+	private final int[] cardinality;
+
+	private ColumnarStatistics statistics;
+	private ColumnarStatistics.Running running;
+	private SquaredDistance distance;
+	private double[] rangeRow;
+
+	public ColumnarDataSet(AttributeType type, int rowSize, int columnSize)
+	{
+		this.attributeType = type;
+		this.columnSize = columnSize;
+		this.numerical = new DoubleBuffer[columnSize];
+		this.nominal = new IntBuffer[columnSize];
+		this.cardinality = new int[columnSize];
+		int capacity = Math.max(rowSize, 16);
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) nominal[i] = IntBuffer.allocate(capacity);
+			else numerical[i] = DoubleBuffer.allocate(capacity);
+		}
+		this.running = new ColumnarStatistics.Running(this);
+	}
+
+	/**
+	 * Crea un ColumnarDataSet con columnas ya construidas, por ejemplo regiones de un
+	 * archivo mapeado en memoria.
+	 *
+	 * @param type los tipos de los atributos
+	 * @param rowSize el numero de instancias
+	 * @param numerical las columnas numericas, con null en las posiciones nominales
+	 * @param nominal las columnas nominales, con null en las posiciones numericas
+	 * @param cardinality el numero de categorias de cada columna nominal
+	 */
+	public ColumnarDataSet(AttributeType type, int rowSize,
+	                       DoubleBuffer[] numerical, IntBuffer[] nominal, int[] cardinality)
+	{
+		this.attributeType = type;
+		this.columnSize = numerical.length;
+		this.rowSize = rowSize;
+		this.numerical = numerical;
+		this.nominal = nominal;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * Crea un ColumnarDataSet con columnas ya construidas. Las columnas nominales se
+	 * comparten con el conjunto de origen, ya que la normalizacion no las modifica.
+	 */
+	private ColumnarDataSet(ColumnarDataSet source, DoubleBuffer[] numerical)
+	{
+		this.attributeType = source.attributeType;
+		this.columnSize = source.columnSize;
+		this.rowSize = source.rowSize;
+		this.numerical = numerical;
+		this.nominal = source.nominal;
+		this.cardinality = source.cardinality;
+	}
+
+	/**
+	 * Agrega una instancia a este ColumnarDataSet, si su numero de atributos es igual al
+	 * numero de columnas de este conjunto. Los valores de las columnas nominales son
+	 * categorias, que se guardan con su codigo en el diccionario de la columna.
+	 *
+	 * @param values Los valores de la instancia a agregar
+	 */
+	public void add(double[] values)
+	{
+		if (!hasColumnSize(values)) return;
+		ensureCapacity(rowSize + 1);
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) putCode(i, attributeType.encode(i, category(values[i])));
+			else numerical[i].put(rowSize, values[i]);
+		}
+		added();
+	}
+
+	/**
+	 * Agrega una instancia a este ColumnarDataSet, si su numero de atributos es igual al
+	 * numero de columnas de este conjunto. Los valores de las columnas nominales ya son
+	 * codigos del diccionario de la columna, por ejemplo los que asigna AttributeType.encode
+	 * al leer un CSV.
+	 *
+	 * @param values Los valores numericos y los codigos nominales de la instancia a agregar
+	 */
+	public void addEncoded(double[] values)
+	{
+		if (!hasColumnSize(values)) return;
+		ensureCapacity(rowSize + 1);
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) putCode(i, (int) values[i]);
+			else numerical[i].put(rowSize, values[i]);
+		}
+		added();
+	}
+
+	private boolean hasColumnSize(double[] values)
+	{
+		if (values.length == columnSize) return true;
+		log.error("La instancia {} tiene un numero incorrecto de atributos: {}",
+				Arrays.toString(values), values.length);
+		return false;
+	}
+
+	private void putCode(int column, int code)
+	{
+		nominal[column].put(rowSize, code);
+		if (code >= cardinality[column]) cardinality[column] = code + 1;
+	}
+
+	private void added()
+	{
+		if (running != null) running.add(rowSize);
+		rowSize++;
+		statistics = null;
+		rangeRow = null;
+	}
+
+	/**
+	 * Convierte el valor de una categoria a BigDecimal con la misma escala con la que un
+	 * CSV escribe un entero (2) o un decimal (2.5).
+	 */
+	private static BigDecimal category(double value)
+	{
+		return value == Math.rint(value) && Math.abs(value) < 0x1p53 ?
+				BigDecimal.valueOf((long) value) :
+				BigDecimal.valueOf(value);
+	}
+
+	/**
+	 * Retorna la categoria que representa un codigo de la columna nominal especificada.
+	 *
+	 * @param column numero de columna
+	 * @param code el codigo de la categoria
+	 * @return el valor de la categoria
+	 */
+	public BigDecimal getCategory(int column, int code)
+	{
+		return attributeType.getDictionary(column).decode(code);
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (numerical[i] != null && numerical[i].capacity() < capacity)
+			{
+				DoubleBuffer grown = DoubleBuffer.allocate(Math.max(capacity, numerical[i].capacity() * 2));
+				grown.put((DoubleBuffer) numerical[i].duplicate().clear());
+				numerical[i] = grown;
+			}
+			if (nominal[i] != null && nominal[i].capacity() < capacity)
+			{
+				IntBuffer grown = IntBuffer.allocate(Math.max(capacity, nominal[i].capacity() * 2));
+				grown.put((IntBuffer) nominal[i].duplicate().clear());
+				nominal[i] = grown;
+			}
+		}
+	}
+
+	/**
+	 * Retorna el buffer que almacena la columna numerica especificada. Solo las primeras
+	 * getRowSize() posiciones son validas; el buffer debe leerse con indices absolutos y
+	 * no debe modificarse.
+	 *
+	 * @param column numero de columna
+	 * @return los valores de la columna, o null si la columna es nominal
+	 */
+	public DoubleBuffer getNumericalColumn(int column) { return numerical[column]; }
+
+	/**
+	 * Retorna el buffer que almacena los codigos de la columna nominal especificada. Solo
+	 * las primeras getRowSize() posiciones son validas; el buffer debe leerse con indices
+	 * absolutos y no debe modificarse.
+	 *
+	 * @param column numero de columna
+	 * @return los codigos de la columna, o null si la columna es numerica
+	 */
+	public IntBuffer getNominalColumn(int column) { return nominal[column]; }
+
+	/**
+	 * Retorna el numero de categorias observadas en una columna nominal, es decir, el
+	 * codigo mas grande mas uno. Como los codigos los asigna el diccionario de la columna,
+	 * no depende de los valores de las categorias.
+	 *
+	 * @param column numero de columna
+	 * @return el numero de categorias de la columna
+	 */
+	public int getCardinality(int column) { return cardinality[column]; }
+
+	public double get(int row, int column)
+	{
+		return isNominal(column) ? nominal[column].get(row) : numerical[column].get(row);
+	}
+
+	/**
+	 * Clasifica este ColumnarDataSet mediante el metodo k-means, partiendo de k
+	 * instancias distintas escogidas al azar como centroides.
+	 *
+	 * @param k El numero de clusters
+	 * @return El conjunto de clusters encontrados.
+	 */
+	@Override
+	public ColumnarClusterSet kMeans(int k)
+	{
+		return kMeans(k, new KMeansOptions());
+	}
+
+	@Override
+	public ColumnarClusterSet kMeans(int k, KMeansOptions options)
+	{
+		if (options.getRestarts() > 1)
+		{
+			getStatistics();
+			return Restarts.best(options, o -> kMeans(k, o));
+		}
+		Random random = options.createRandom();
+		return kMeans(new ColumnarClusterSet(this, getInitialCentroids(k, options, random),
+				options.getAlgorithm()), options, random);
+	}
+
+	@Override
+	public ColumnarClusterSet kMeans(Set<Row> centroids)
+	{
+		return kMeans(centroids, new KMeansOptions());
+	}
+
+	@Override
+	public ColumnarClusterSet kMeans(Set<Row> centroids, KMeansOptions options)
+	{
+		double[][] result = centroids
+				.stream()
+				.filter(this::hasColumnSize)
+				.map(r -> {
+					double[] centroid = new double[columnSize];
+					for (int i = 0; i < columnSize; i++)
+						centroid[i] = isNominal(i) ? attributeType.encode(i, r.get(i)) : r.get(i).doubleValue();
+					return centroid;
+				})
+				.toArray(double[][]::new);
+		return kMeans(new ColumnarClusterSet(this, result, options.getAlgorithm()), options, options.createRandom());
+	}
+
+	private boolean hasColumnSize(Row r)
+	{
+		if (r.size() == columnSize) return true;
+		log.error("El centroide {} tiene un numero incorrecto de atributos: {}", r, r.size());
+		return false;
+	}
+
+	private ColumnarClusterSet kMeans(ColumnarClusterSet clusters, KMeansOptions options, Random random)
+	{
+		if (options.getAlgorithm() == KMeansAlgorithm.MINI_BATCH)
+		{
+			clusters.miniBatch(options.getBatchSize(), options.getBatchIterations(), random);
+			clusters.assignRowsToClosestClusters(options.getPool());
+			options.report(1, clusters::getInertia);
+			clusters.stopped(StopReason.MAX_ITERATIONS, options.getBatchIterations());
+			return clusters;
+		}
+		StoppingCriteria criteria = options.createStoppingCriteria();
+		for (int iteration = 1; ; iteration++)
+		{
+			boolean moved = clusters.assignRowsToClosestClusters(options.getPool());
+			StopReason reason = criteria.afterAssignment(iteration, moved, clusters::getInertia);
+			if (reason == null)
+			{
+				clusters.recomputeCentroids();
+				reason = criteria.afterUpdate(clusters.getCentroidShift());
+			}
+			if (reason != null)
+			{
+				clusters.stopped(reason, iteration);
+				return clusters;
+			}
+		}
+	}
+
+	private double[][] getInitialCentroids(int k, KMeansOptions options, Random random)
+	{
+		if (rowSize < k) return new double[0][];
+
+		SquaredDistance distance = new SquaredDistance(this);
+		int[] indices = Seeding.choose(options.getInitialization(), rowSize, k,
+				distance::between, random, options.getPool());
+		double[][] centroids = new double[indices.length][];
+		for (int i = 0; i < indices.length; i++)
+			centroids[i] = getRow(indices[i]);
+		return centroids;
+	}
+
+	@Override
+	public double distance(int a, int b)
+	{
+		if (distance == null) distance = new SquaredDistance(this);
+		return Math.sqrt(distance.between(a, b));
+	}
+
+	/**
+	 * Copia la instancia especificada en un arreglo nuevo.
+	 *
+	 * @param row el numero de instancia
+	 * @return los valores de la instancia
+	 */
+	public double[] getRow(int row)
+	{
+		double[] values = new double[columnSize];
+		for (int i = 0; i < columnSize; i++)
+			values[i] = get(row, i);
+		return values;
+	}
+
+	/**
+	 * Normaliza este ColumnarDataSet mediante el metodo min-max. Las columnas cuyo rango
+	 * es cero quedan con el valor newMin.
+	 *
+	 * @param newMin el nuevo minimo para todas las columnas
+	 * @param newMax el nuevo maximo para todas las columnas
+	 * @return El resultado de la normalizacion de este ColumnarDataSet
+	 */
+	@Override
+	public ColumnarDataSet minMax(BigDecimal newMin, BigDecimal newMax)
+	{
+		return minMax(newMin, newMax, false);
+	}
+
+	/**
+	 * Normaliza este ColumnarDataSet mediante el metodo min-max. Si inPlace es true, las
+	 * columnas del heap se sobrescriben con los valores normalizados; las columnas de un
+	 * archivo mapeado en memoria se copian de todos modos.
+	 */
+	@Override
+	public ColumnarDataSet minMax(BigDecimal newMin, BigDecimal newMax, boolean inPlace)
+	{
+		double[] min = getMinRow();
+		double[] range = getRangeRow();
+		double low = newMin.doubleValue();
+		double diffNewMinNewMax = newMax.doubleValue() - low;
+
+		DoubleBuffer[] normalized = new DoubleBuffer[columnSize];
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) continue;
+			DoubleBuffer source = numerical[i];
+			DoubleBuffer target = target(source, inPlace);
+			double scale = range[i] == 0 ? 0 : diffNewMinNewMax / range[i];
+			for (int r = 0; r < rowSize; r++)
+				target.put(r, (source.get(r) - min[i]) * scale + low);
+			normalized[i] = target;
+		}
+		return normalized(normalized, inPlace);
+	}
+
+	/**
+	 * Normaliza este ColumnarDataSet mediante el metodo z-score. Las columnas con
+	 * desviacion estandar cero se conservan sin cambios.
+	 *
+	 * @return El resultado de la normalizacion de este ColumnarDataSet
+	 */
+	@Override
+	public ColumnarDataSet zScore()
+	{
+		return zScore(false);
+	}
+
+	@Override
+	public ColumnarDataSet zScore(boolean inPlace)
+	{
+		double[] averageRow = getStatistics().getAverageRow();
+		double[] standardDeviationRow = getStatistics().getStandardDeviationRow();
+		DoubleBuffer[] normalized = new DoubleBuffer[columnSize];
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) continue;
+			DoubleBuffer source = numerical[i];
+			double average = averageRow[i];
+			double standardDeviation = standardDeviationRow[i];
+			if (standardDeviation == 0)
+			{
+				normalized[i] = source;
+				continue;
+			}
+			DoubleBuffer target = target(source, inPlace);
+			for (int r = 0; r < rowSize; r++)
+				target.put(r, (source.get(r) - average) / standardDeviation);
+			normalized[i] = target;
+		}
+		return normalized(normalized, inPlace);
+	}
+
+	/**
+	 * Normaliza este ColumnarDataSet mediante el metodo decimal-scaling.
+	 *
+	 * @return El resultado de la normalizacion de este ColumnarDataSet
+	 */
+	@Override
+	public ColumnarDataSet decimalScaling()
+	{
+		return decimalScaling(false);
+	}
+
+	@Override
+	public ColumnarDataSet decimalScaling(boolean inPlace)
+	{
+		double[] absMaxRow = getStatistics().getAbsoluteMaxRow();
+		DoubleBuffer[] normalized = new DoubleBuffer[columnSize];
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (isNominal(i)) continue;
+			DoubleBuffer source = numerical[i];
+			double tenPower = tenPower(absMaxRow[i]);
+			DoubleBuffer target = target(source, inPlace);
+			for (int r = 0; r < rowSize; r++)
+				target.put(r, source.get(r) / tenPower);
+			normalized[i] = target;
+		}
+		return normalized(normalized, inPlace);
+	}
+
+	/**
+	 * Retorna la columna en la que se escribe la normalizacion de source: source misma si
+	 * se normaliza en su lugar y es un arreglo del heap, o un arreglo nuevo en otro caso.
+	 * Cada valor se lee antes de escribir el normalizado en la misma posicion.
+	 */
+	private DoubleBuffer target(DoubleBuffer source, boolean inPlace)
+	{
+		return inPlace && !source.isReadOnly() && !source.isDirect() ? source : DoubleBuffer.allocate(rowSize);
+	}
+
+	private ColumnarDataSet normalized(DoubleBuffer[] normalized, boolean inPlace)
+	{
+		ColumnarDataSet resultSet = new ColumnarDataSet(this, normalized);
+		if (inPlace)
+		{
+			statistics = null;
+			running = null;
+			distance = null;
+			rangeRow = null;
+		}
+		return resultSet;
+	}
+
+	/**
+	 * Obtiene la menor potencia de diez que es mayor o igual al maximo absoluto especificado.
+	 */
+	private static double tenPower(double absMax)
+	{
+		double tenPower = 1;
+		while (absMax > tenPower) tenPower *= 10;
+		return tenPower;
+	}
+
+	/**
+	 * Retorna las estadisticas de todas las columnas de este conjunto, que se calculan en
+	 * una sola pasada la primera vez que se necesitan.
+	 *
+	 * @return las estadisticas de este conjunto
+	 */
+	public ColumnarStatistics getStatistics()
+	{
+		if (statistics == null) statistics = running != null ? running.get() : ColumnarStatistics.of(this);
+		return statistics;
+	}
+
+	/**
+	 * Retorna el minimo de cada atributo de este conjunto. Si el atributo es de tipo
+	 * nominal, entonces el resultado asignado para esa columna es 0.
+	 *
+	 * @return el minimo de cada atributo
+	 */
+	public double[] getMinRow()
+	{
+		return getStatistics().getMinRow();
+	}
+
+	/**
+	 * Retorna el maximo de cada atributo de este conjunto. Si el atributo es de tipo
+	 * nominal, entonces el resultado asignado para esa columna es 0.
+	 *
+	 * @return el maximo de cada atributo
+	 */
+	public double[] getMaxRow()
+	{
+		return getStatistics().getMaxRow();
+	}
+
+	public double[] getRangeRow()
+	{
+		if (rangeRow == null)
+		{
+			double[] max = getMaxRow();
+			double[] min = getMinRow();
+			double[] ranges = new double[columnSize];
+			for (int i = 0; i < columnSize; i++)
+				ranges[i] = max[i] - min[i];
+			rangeRow = ranges;
+		}
+		return rangeRow;
+	}
+
+	@Override
+	public long getMemorySize()
+	{
+		long bytes = 0;
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (numerical[i] != null && !numerical[i].isDirect())
+				bytes += (long) numerical[i].capacity() * Double.BYTES;
+			if (nominal[i] != null && !nominal[i].isDirect())
+				bytes += (long) nominal[i].capacity() * Integer.BYTES;
+		}
+		return bytes;
+	}
+
+	public boolean isNumerical(int c) { return attributeType.isNumerical(c); }
+
+	public boolean isNominal(int c) { return attributeType.isNominal(c); }
+
+	/**
+	 * Representa este ColumnarDataSet en un String, con el mismo formato que un DataSet.
+	 * @return la representacion textual de este ColumnarDataSet
+	 */
+	@Override
+	public String toString() { return toString(rowSize); }
+
+	@Override
+	public String toString(int maxRows)
+	{
+		StringBuilder sb = new StringBuilder("DataSet{\n")
+				.append("rowSize=").append(rowSize).append("\n")
+				.append("columnSize=").append(columnSize).append("\n")
+				.append("attributeType=").append(attributeType).append("\n");
+		if (maxRows < rowSize)
+			sb.append("min=").append(Arrays.toString(getMinRow())).append("\n")
+					.append("max=").append(Arrays.toString(getMaxRow())).append("\n");
+
+		sb.append("rows={\n");
+		for (int r = 0; r < Math.min(maxRows, rowSize); r++)
+		{
+			appendRow(sb, r);
+			sb.append("\n");
+		}
+		if (maxRows < rowSize)
+			sb.append("... ").append(rowSize - maxRows).append(" instancias mas\n");
+		return sb.append("}}").toString();
+	}
+
+	void appendRow(StringBuilder sb, int row)
+	{
+		try
+		{
+			appendRow((Appendable) sb, row);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	Appendable appendRow(Appendable out, int row) throws IOException
+	{
+		out.append("{indice=").append(String.valueOf(row + 1)).append(", [");
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (i > 0) out.append(", ");
+			if (isNominal(i)) out.append(getCategory(i, nominal[i].get(row)).toString());
+			else out.append(String.valueOf(numerical[i].get(row)));
+		}
+		return out.append("]}");
+	}
+}
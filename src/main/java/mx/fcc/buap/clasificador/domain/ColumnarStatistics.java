@@ -0,0 +1,259 @@
+package mx.fcc.buap.clasificador.domain;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Estadisticas de todas las columnas de un ColumnarDataSet, calculadas en una sola
+ * pasada: minimo, maximo, maximo absoluto, promedio y varianza (con el algoritmo de
+ * Welford) de las columnas numericas, y frecuencia de cada categoria de las nominales.
+ * <p>
+ * Las instancias se dividen en bloques de LEAF_SIZE filas cuyas estadisticas se calculan
+ * en el ForkJoinPool comun y se combinan de izquierda a derecha con merge (formula de
+ * Chan et al.), por lo que el resultado no depende del numero de hilos. Running acumula
+ * los mismos bloques a medida que se agregan instancias, con un resultado identico.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class ColumnarStatistics
+{
+	static final int LEAF_SIZE = 1 << 14;
+
+	private final AttributeType attributeType;
+	private int count;
+	private final double[] min;
+	private final double[] max;
+	private final double[] absMax;
+	private final double[] mean;
+	private final double[] m2;
+	private final int[][] frequencies;
+
+	private ColumnarStatistics(ColumnarDataSet dataSet)
+	{
+		int columnSize = dataSet.getColumnSize();
+		this.attributeType = dataSet.getAttributeType();
+		this.min = new double[columnSize];
+		this.max = new double[columnSize];
+		this.absMax = new double[columnSize];
+		this.mean = new double[columnSize];
+		this.m2 = new double[columnSize];
+		this.frequencies = new int[columnSize][];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		for (int i = 0; i < columnSize; i++)
+			if (dataSet.isNominal(i))
+				frequencies[i] = new int[dataSet.getCardinality(i)];
+	}
+
+	private ColumnarStatistics(ColumnarStatistics other)
+	{
+		this.attributeType = other.attributeType;
+		this.count = other.count;
+		this.min = other.min.clone();
+		this.max = other.max.clone();
+		this.absMax = other.absMax.clone();
+		this.mean = other.mean.clone();
+		this.m2 = other.m2.clone();
+		this.frequencies = new int[other.frequencies.length][];
+		for (int i = 0; i < frequencies.length; i++)
+			if (other.frequencies[i] != null) frequencies[i] = other.frequencies[i].clone();
+	}
+
+	/**
+	 * Calcula las estadisticas de todas las columnas del conjunto especificado.
+	 */
+	public static ColumnarStatistics of(ColumnarDataSet dataSet)
+	{
+		int rowSize = dataSet.getRowSize();
+		int blocks = (rowSize + LEAF_SIZE - 1) / LEAF_SIZE;
+		if (blocks <= 1) return block(dataSet, 0, rowSize);
+
+		ColumnarStatistics[] statistics = IntStream
+				.range(0, blocks)
+				.parallel()
+				.mapToObj(b -> block(dataSet, b * LEAF_SIZE, Math.min(rowSize, (b + 1) * LEAF_SIZE)))
+				.toArray(ColumnarStatistics[]::new);
+		for (int b = 1; b < blocks; b++)
+			statistics[0].merge(statistics[b]);
+		return statistics[0];
+	}
+
+	private static ColumnarStatistics block(ColumnarDataSet dataSet, int from, int to)
+	{
+		ColumnarStatistics statistics = new ColumnarStatistics(dataSet);
+		statistics.accumulate(dataSet, from, to);
+		return statistics;
+	}
+
+	/**
+	 * Agrega las instancias [from, to) recorriendo cada columna de manera secuencial.
+	 */
+	private void accumulate(ColumnarDataSet dataSet, int from, int to)
+	{
+		for (int i = 0; i < min.length; i++)
+		{
+			if (frequencies[i] != null)
+			{
+				IntBuffer codes = dataSet.getNominalColumn(i);
+				for (int r = from; r < to; r++)
+				{
+					int code = codes.get(r);
+					if (code >= frequencies[i].length) frequencies[i] = Arrays.copyOf(frequencies[i], code + 1);
+					frequencies[i][code]++;
+				}
+				continue;
+			}
+			DoubleBuffer values = dataSet.getNumericalColumn(i);
+			double lo = min[i], hi = max[i], abs = absMax[i], average = mean[i], squares = m2[i];
+			int n = count;
+			for (int r = from; r < to; r++)
+			{
+				double value = values.get(r);
+				if (value < lo) lo = value;
+				if (value > hi) hi = value;
+				abs = Math.max(abs, Math.abs(value));
+				double delta = value - average;
+				average += delta / ++n;
+				squares += delta * (value - average);
+			}
+			min[i] = lo;
+			max[i] = hi;
+			absMax[i] = abs;
+			mean[i] = average;
+			m2[i] = squares;
+		}
+		count += to - from;
+	}
+
+	/**
+	 * Combina con estas estadisticas las de otro bloque de instancias.
+	 *
+	 * @param other las estadisticas del bloque siguiente
+	 * @return estas estadisticas
+	 */
+	public ColumnarStatistics merge(ColumnarStatistics other)
+	{
+		if (other.count == 0) return this;
+		int n = count + other.count;
+		for (int i = 0; i < min.length; i++)
+		{
+			if (frequencies[i] != null)
+			{
+				int[] counts = other.frequencies[i];
+				if (counts.length > frequencies[i].length)
+					frequencies[i] = Arrays.copyOf(frequencies[i], counts.length);
+				for (int code = 0; code < counts.length; code++)
+					frequencies[i][code] += counts[code];
+				continue;
+			}
+			min[i] = Math.min(min[i], other.min[i]);
+			max[i] = Math.max(max[i], other.max[i]);
+			absMax[i] = Math.max(absMax[i], other.absMax[i]);
+			double delta = other.mean[i] - mean[i];
+			mean[i] += delta * other.count / n;
+			m2[i] += other.m2[i] + delta * delta * ((double) count * other.count / n);
+		}
+		count = n;
+		return this;
+	}
+
+	public int getCount() { return count; }
+
+	/**
+	 * Retorna el minimo de cada columna, o 0 en las columnas nominales.
+	 */
+	public double[] getMinRow() { return numerical(min); }
+
+	/**
+	 * Retorna el maximo de cada columna, o 0 en las columnas nominales.
+	 */
+	public double[] getMaxRow() { return numerical(max); }
+
+	/**
+	 * Retorna el maximo absoluto de cada columna, o 0 en las columnas nominales.
+	 */
+	public double[] getAbsoluteMaxRow() { return numerical(absMax); }
+
+	/**
+	 * Retorna el promedio de cada columna, o 0 en las columnas nominales.
+	 */
+	public double[] getAverageRow() { return numerical(mean); }
+
+	/**
+	 * Retorna la desviacion estandar poblacional de cada columna, o 0 en las columnas nominales.
+	 */
+	public double[] getStandardDeviationRow()
+	{
+		double[] deviation = new double[min.length];
+		for (int i = 0; i < deviation.length; i++)
+			if (frequencies[i] == null && count > 0)
+				deviation[i] = Math.sqrt(Math.max(0, m2[i]) / count);
+		return deviation;
+	}
+
+	/**
+	 * Retorna cuantas instancias tienen cada categoria de la columna nominal especificada.
+	 */
+	public int[] getFrequencies(int column) { return frequencies[column].clone(); }
+
+	/**
+	 * Retorna la categoria mas frecuente de la columna nominal especificada; en caso de
+	 * empate, el codigo menor.
+	 */
+	public int getMode(int column)
+	{
+		int[] frequency = frequencies[column];
+		int mode = 0;
+		for (int code = 1; code < frequency.length; code++)
+			if (frequency[code] > frequency[mode]) mode = code;
+		return mode;
+	}
+
+	private double[] numerical(double[] values)
+	{
+		double[] result = new double[values.length];
+		for (int i = 0; i < result.length; i++)
+			if (attributeType.isNumerical(i) && count > 0) result[i] = values[i];
+		return result;
+	}
+
+	/**
+	 * Acumula las estadisticas de un ColumnarDataSet a medida que se le agregan
+	 * instancias, en los mismos bloques de LEAF_SIZE instancias que of.
+	 */
+	static final class Running
+	{
+		private final ColumnarDataSet dataSet;
+		private ColumnarStatistics total;
+		private ColumnarStatistics block;
+
+		Running(ColumnarDataSet dataSet) { this.dataSet = dataSet; }
+
+		/**
+		 * Agrega la instancia especificada, que debe ser la siguiente del conjunto.
+		 */
+		void add(int row)
+		{
+			if (block == null) block = new ColumnarStatistics(dataSet);
+			block.accumulate(dataSet, row, row + 1);
+			if (block.count == LEAF_SIZE)
+			{
+				total = total == null ? block : total.merge(block);
+				block = null;
+			}
+		}
+
+		/**
+		 * Retorna una copia de las estadisticas de las instancias agregadas hasta ahora.
+		 */
+		ColumnarStatistics get()
+		{
+			if (total == null) return block != null ? new ColumnarStatistics(block) : new ColumnarStatistics(dataSet);
+			ColumnarStatistics statistics = new ColumnarStatistics(total);
+			return block != null ? statistics.merge(block) : statistics;
+		}
+	}
+}
@@ -1,10 +1,8 @@
 package mx.fcc.buap.clasificador.domain;
 
 import lombok.Getter;
-import mx.fcc.buap.clasificador.tools.MathTools;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -20,93 +18,151 @@ public class DataRow extends Row
 	@Getter private int indice;
 	private final DataSet dataSet;
 
+	/**
+	 * El codigo de la categoria de cada columna nominal segun el diccionario de
+	 * AttributeType, o null si el DataSet no tiene columnas nominales.
+	 */
+	private final int[] codes;
+
 	private static final AtomicInteger counter = new AtomicInteger(0);
 
-	private DataRow(DataSet dataSet, BigDecimal[] attributes, int indice)
+	private DataRow(DataSet dataSet, BigDecimal[] attributes, int[] codes, int indice)
 	{
 		super(attributes);
 		this.indice = indice;
 		this.dataSet = dataSet;
+		this.codes = codes;
 	}
 
+	/**
+	 * Crea un DataRow con los valores del Row especificado. Los valores nominales se
+	 * codifican con el diccionario de su columna y se reemplazan por la instancia del
+	 * diccionario, por lo que todos los DataRow comparten las mismas instancias.
+	 */
 	public DataRow(Row r, DataSet dataSet, int indice)
 	{
 		super(r.attributes);
 		this.indice = indice;
 		this.dataSet = dataSet;
+		this.codes = encode(dataSet.getAttributeType());
 	}
 
+	private int[] encode(AttributeType type)
+	{
+		int[] codes = null;
+		for (int i = 0; i < attributes.length; i++)
+		{
+			if (type.isNumerical(i)) continue;
+			if (codes == null) codes = new int[attributes.length];
+			CategoryDictionary dictionary = type.getDictionary(i);
+			codes[i] = dictionary.encode(attributes[i]);
+			attributes[i] = dictionary.decode(codes[i]);
+		}
+		return codes;
+	}
+
+	/**
+	 * Retorna el codigo de la categoria de la columna nominal especificada.
+	 */
+	int getCode(int column) { return codes[column]; }
+
 	/**
 	 * Normaliza este DataRow mediante el metodo min-max, a partir de los parametros especificados,
 	 * y retorna el resultado en un DataRow nuevo.
 	 *
+	 * @param target El DataSet al que pertenecera el DataRow normalizado
 	 * @return Un DataRow nuevo con el resultado de la normalizacion
 	 */
-	public DataRow minmax(Row minRow, Row maxRow, BigDecimal newMin, BigDecimal newMax)
+	public DataRow minmax(DataSet target, Row minRow, Row maxRow, BigDecimal newMin, BigDecimal newMax)
 	{
 		BigDecimal diffNewMinNewMax = newMax.subtract(newMin);
+		NumericPrecision precision = dataSet.getPrecision();
 		BigDecimal[] normalized = new BigDecimal[size()];
 		for (int i = 0; i < normalized.length; i++)
 		{
 			BigDecimal diffMinMax = maxRow.attributes[i].subtract(minRow.attributes[i]);
 			normalized[i] = dataSet.isNominal(i) ? attributes[i] :
-					attributes[i]
-							.subtract(minRow.attributes[i])
-							.divide(diffMinMax, dataSet.getPrecision(), RoundingMode.HALF_UP)
+					precision
+							.divide(attributes[i].subtract(minRow.attributes[i]), diffMinMax)
 							.multiply(diffNewMinNewMax)
 							.add(newMin)
 							.stripTrailingZeros();
 		}
-		return new DataRow(dataSet, normalized, indice);
+		return new DataRow(target, normalized, codes, indice);
 	}
 
 	/**
 	 * Normaliza este DataRow mediante el metodo z-score, a partir de los parametros especificados,
 	 * y retorna el resultado en un DataRow nuevo.
 	 *
+	 * @param target El DataSet al que pertenecera el DataRow normalizado
 	 * @return Un DataRow nuevo con el resultado de la normalizacion
 	 */
-	public DataRow zScore(Row avg, Row stddev)
+	public DataRow zScore(DataSet target, Row avg, Row stddev)
 	{
 		BigDecimal[] normalized = new BigDecimal[size()];
 		for (int i = 0; i < normalized.length; i++)
 			normalized[i] = dataSet.isNominal(i) || ZERO.equals(stddev.attributes[i]) ? attributes[i] :
-					attributes[i]
-							.subtract(avg.attributes[i])
-							.divide(stddev.attributes[i], dataSet.getPrecision(), RoundingMode.HALF_UP)
+					dataSet.getPrecision()
+							.divide(attributes[i].subtract(avg.attributes[i]), stddev.attributes[i])
 							.stripTrailingZeros();
 
-		return new DataRow(dataSet, normalized, indice);
+		return new DataRow(target, normalized, codes, indice);
 	}
 
 	/**
 	 * Normaliza este DataRow mediante el metodo decimal-scaling, a partir de los parametros especificados,
 	 * y retorna el resultado en un DataRow nuevo.
 	 *
+	 * @param target El DataSet al que pertenecera el DataRow normalizado
 	 * @return Un DataRow nuevo con el resultado de la normalizacion
 	 */
-	public DataRow decimalScaling(int[] j)
+	public DataRow decimalScaling(DataSet target, int[] j)
 	{
 		BigDecimal[] normalized = new BigDecimal[size()];
 		for (int i = 0; i < normalized.length; i++)
 			normalized[i] = dataSet.isNominal(i) ? attributes[i] :
 					attributes[i]
 							.movePointLeft(j[i])
-							.stripTrailingZeros();;
+							.stripTrailingZeros();
 
-		return new DataRow(dataSet, normalized, indice);
+		return new DataRow(target, normalized, codes, indice);
 	}
 
 	public BigDecimal distance(Row other)
 	{
+		return dataSet.getPrecision()
+				.sqrt(squaredDistance(other));
+	}
+
+	/**
+	 * Calcula el cuadrado de la distancia entre este DataRow y otro Row. Para encontrar el
+	 * Row mas cercano basta comparar los cuadrados, lo que evita calcular la raiz cuadrada.
+	 * Las columnas nominales se comparan por su codigo cuando el otro Row tambien es un
+	 * DataRow, y por su valor en otro caso.
+	 *
+	 * @param other el Row con el que se compara
+	 * @return el cuadrado de la distancia
+	 */
+	public BigDecimal squaredDistance(Row other)
+	{
+		int[] otherCodes = other instanceof DataRow ? ((DataRow) other).codes : null;
 		BigDecimal squaredDistancesSum = ZERO;
 		for (int i = 0; i < attributes.length; i++)
-			squaredDistancesSum = squaredDistancesSum
-					.add(
-							distance(i, other.attributes[i])
-									.pow(2));
-		return MathTools
-				.sqrt(squaredDistancesSum, dataSet.getPrecision());
+		{
+			if (dataSet.isNominal(i) && other.attributes[i] != null)
+			{
+				boolean same = otherCodes != null ? codes[i] == otherCodes[i] :
+						attributes[i] == other.attributes[i] || attributes[i].equals(other.attributes[i]);
+				if (!same) squaredDistancesSum = squaredDistancesSum.add(ONE);
+			}
+			else
+				squaredDistancesSum = squaredDistancesSum
+						.add(
+								dataSet.getPrecision()
+										.square(distance(i, other.attributes[i])));
+		}
+		return squaredDistancesSum;
 	}
 
 	private BigDecimal distance(int column, BigDecimal other)
@@ -119,12 +175,11 @@ public class DataRow extends Row
 			return attributes[column]
 					.equals(other) ? ZERO : ONE;
 		else
-			return attributes[column]
-					.subtract(other)
-					.abs()
-					.divide(rangeRow.attributes[column],
-							dataSet.getPrecision(),
-							RoundingMode.HALF_UP);
+			return dataSet.getPrecision()
+					.divide(attributes[column]
+									.subtract(other)
+									.abs(),
+							rangeRow.attributes[column]);
 	}
 
 	@Override
@@ -1,15 +1,22 @@
 package mx.fcc.buap.clasificador.domain;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
-import mx.fcc.buap.clasificador.tools.MathTools;
-
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.kmeans.Restarts;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+import mx.fcc.buap.clasificador.kmeans.StoppingCriteria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.BiFunction;
 
 import static java.math.BigDecimal.ONE;
 import static java.math.BigDecimal.ZERO;
@@ -20,7 +27,7 @@ import static java.math.BigDecimal.ZERO;
  */
 @Data
 @Log4j2
-public class DataSet implements Iterable<DataRow>
+public class DataSet implements DataTable, Iterable<DataRow>
 {
 	private final int id = idGenerator.incrementAndGet();
 
@@ -28,27 +35,66 @@ public class DataSet implements Iterable<DataRow>
 	private final AttributeType attributeType;
 	private final int columnSize;
 
-	private Row minRow;
-	private Row maxRow;
+	@Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+	private DataSetStatistics statistics;
+	@Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
 	private Row rangeRow;
 
-	private int precision = 25;
+	private NumericPrecision precision = NumericPrecision.HIGH;
 
 	private final AtomicInteger indiceGenerator = new AtomicInteger(0);
 	private static final AtomicInteger idGenerator = new AtomicInteger(0);
 
+	/**
+	 * Bytes aproximados de un DataRow sin sus valores, y de cada BigDecimal con su
+	 * referencia en el arreglo del Row.
+	 */
+	private static final int ROW_BYTES = 48;
+	private static final int VALUE_BYTES = 48;
+
+	/**
+	 * Crea un DataSet vacio cuyas estadisticas se acumulan a medida que se agregan
+	 * instancias, de modo que al terminar de leerlo ya no hace falta recorrerlo otra vez
+	 * para normalizarlo.
+	 */
 	public DataSet(AttributeType type, int rowSize, int columnSize)
+	{
+		this(type, rowSize, columnSize, true);
+	}
+
+	/**
+	 * @param collectStatistics si es false, las estadisticas se calculan en una pasada la
+	 *                          primera vez que se necesitan
+	 */
+	DataSet(AttributeType type, int rowSize, int columnSize, boolean collectStatistics)
 	{
 		this.attributeType = type;
 		this.columnSize = columnSize;
 		this.rows = new ArrayList<>(rowSize);
+		if (collectStatistics) statistics = new DataSetStatistics(type, columnSize);
 	}
 
-	private DataSet(AttributeType type, List<DataRow> rows)
+	/**
+	 * Crea un DataSet nuevo con la normalizacion de cada DataRow de este DataSet. Los
+	 * DataRow normalizados pertenecen al DataSet nuevo, de modo que sus distancias se
+	 * escalan con los rangos de los valores normalizados.
+	 *
+	 * @param normalization la normalizacion de un DataRow hacia el DataSet destino
+	 * @param inPlace si es true, cada DataRow se suelta en cuanto se normaliza, de modo
+	 *                que solo hay una copia de las instancias; este DataSet queda vacio
+	 * @return El DataSet con los DataRow normalizados
+	 */
+	private DataSet normalize(BiFunction<DataRow, DataSet, DataRow> normalization, boolean inPlace)
 	{
-		this.attributeType = type;
-		this.rows = rows;
-		this.columnSize = rows.size() == 0 ? 0 : rows.get(0).size();
+		DataSet resultSet = new DataSet(attributeType, rows.size(), columnSize);
+		resultSet.precision = precision;
+		for (int i = 0; i < rows.size(); i++)
+		{
+			resultSet.add(normalization.apply(rows.get(i), resultSet));
+			if (inPlace) rows.set(i, null);
+		}
+		if (inPlace) clear();
+		return resultSet;
 	}
 
 	/**
@@ -61,10 +107,10 @@ public class DataSet implements Iterable<DataRow>
 	{
 		if (r.size() == columnSize)
 		{
-			rows.add(r instanceof DataRow ? (DataRow) r :
-					new DataRow(r, this, indiceGenerator.incrementAndGet()));
-			minRow = null;
-			maxRow = null;
+			DataRow row = r instanceof DataRow ? (DataRow) r :
+					new DataRow(r, this, indiceGenerator.incrementAndGet());
+			rows.add(row);
+			if (statistics != null) statistics.add(row);
 			rangeRow = null;
 		}
 		else
@@ -73,6 +119,12 @@ public class DataSet implements Iterable<DataRow>
 
 	public Row get(int i) { return rows.get(i); }
 
+	@Override
+	public double distance(int a, int b)
+	{
+		return Math.sqrt(rows.get(a).squaredDistance(rows.get(b)).doubleValue());
+	}
+
 	/**
 	 * Clasifica este DataSet mediante el metodo k-means.
 	 *
@@ -81,22 +133,53 @@ public class DataSet implements Iterable<DataRow>
 	 */
 	public ClusterSet kMeans(int k)
 	{
-		return kMeans(new ClusterSet(this, k));
+		return kMeans(k, new KMeansOptions());
+	}
+
+	/**
+	 * Clasifica este DataSet mediante el metodo k-means con las opciones especificadas. Si
+	 * options.restarts es mayor a 1, conserva la ejecucion de menor inercia.
+	 */
+	public ClusterSet kMeans(int k, KMeansOptions options)
+	{
+		if (options.getRestarts() > 1)
+		{
+			getRangeRow();
+			return Restarts.best(options, o -> kMeans(k, o));
+		}
+		return kMeans(new ClusterSet(this, k, options.getInitialization(), options.createRandom(),
+				options.getPool()), options);
 	}
 
 	public ClusterSet kMeans(Set<Row> centroids)
 	{
-		return kMeans(new ClusterSet(this, centroids));
+		return kMeans(centroids, new KMeansOptions());
 	}
 
-	private ClusterSet kMeans(ClusterSet clusters)
+	public ClusterSet kMeans(Set<Row> centroids, KMeansOptions options)
 	{
-		do
+		return kMeans(new ClusterSet(this, centroids), options);
+	}
+
+	private ClusterSet kMeans(ClusterSet clusters, KMeansOptions options)
+	{
+		if (options.getAlgorithm() != KMeansAlgorithm.LLOYD)
+			log.warn("El modelo exacto no implementa {}; se usa {}", options.getAlgorithm(), KMeansAlgorithm.LLOYD);
+		StoppingCriteria criteria = options.createStoppingCriteria();
+		for (int iteration = 1; ; iteration++)
 		{
-			clusters.clearAll();
-			rows.forEach(clusters::assignRowToClosestCluster);
+			int moved = clusters.assignRowsToClosestClusters(rows, options.getPool());
+			StopReason reason = criteria.afterAssignment(iteration, moved > 0, clusters::getInertia);
+			if (reason == null)
+				reason = clusters.recomputeCentroids() ?
+						criteria.afterUpdate(clusters.getCentroidShift()) : StopReason.CONVERGED;
+			if (reason != null)
+			{
+				clusters.stopped(reason, iteration);
+				break;
+			}
 		}
-		while (clusters.recomputeCentroids());
+		clusters.fillClusters(rows);
 		return clusters;
 	}
 
@@ -109,69 +192,48 @@ public class DataSet implements Iterable<DataRow>
 	 * @return El resultado de la normalizacion de este DataSet
 	 */
 	public DataSet minMax(BigDecimal newMin, BigDecimal newMax)
+	{
+		return minMax(newMin, newMax, false);
+	}
+
+	@Override
+	public DataSet minMax(BigDecimal newMin, BigDecimal newMax, boolean inPlace)
 	{
 		Row minRow = getMinRow();
 		Row maxRow = getMaxRow();
 
-		DataSet resultSet = new DataSet(
-				attributeType,
-				rows.stream()
-						.map(row -> row
-								.minmax(minRow, maxRow, newMin, newMax))
-						.collect(Collectors.toList()));
-		log.info("min-max:\n{}", resultSet);
+		DataSet resultSet = normalize((row, target) -> row
+				.minmax(target, minRow, maxRow, newMin, newMax), inPlace);
 		return resultSet;
 	}
 
-	public Row getMinRow()
+	/**
+	 * Retorna las estadisticas de todas las columnas de este DataSet, que se calculan en
+	 * una sola pasada la primera vez que se necesitan.
+	 *
+	 * @return las estadisticas de este DataSet
+	 */
+	public DataSetStatistics getStatistics()
 	{
-		if (minRow == null) minRow = computeMinRow();
-		return minRow;
+		if (statistics == null) statistics = DataSetStatistics.of(this);
+		return statistics;
 	}
 
 	/**
-	 * Calcula el minimo para cada atributo de este DataSet, y retorna el
-	 * resultado en un Row nuevo. Si el atributo es de tipo nominal, entonces
-	 * el resultado asignado para esa columna es 0
+	 * Retorna un Row con el minimo de cada atributo de este DataSet. Si el atributo es
+	 * de tipo nominal, entonces el resultado asignado para esa columna es 0
 	 *
 	 * @return Un Row con el minimo de cada atributo de este DataSet
 	 */
-	private Row computeMinRow()
-	{
-		BigDecimal[] min = new BigDecimal[columnSize];
-		for (int i = 0; i < columnSize; i++)
-			min[i] = isNominal(i) ? ZERO :
-					getColumnStream(i)
-							.min(BigDecimal::compareTo).orElse(ZERO);
-		log.debug("min: {}", Arrays.toString(min));
-
-		return new Row(min);
-	}
-
-	public Row getMaxRow()
-	{
-		if (maxRow == null) maxRow = computeMaxRow();
-		return maxRow;
-	}
+	public Row getMinRow() { return getStatistics().getMinRow(); }
 
 	/**
-	 * Calcula el maximo para cada atributo de este DataSet, y retorna el
-	 * resultado en un Row nuevo. Si el atributo es de tipo nominal, entonces
-	 * el resultado asignado para esa columna es 0
+	 * Retorna un Row con el maximo de cada atributo de este DataSet. Si el atributo es
+	 * de tipo nominal, entonces el resultado asignado para esa columna es 0
 	 *
 	 * @return Un Row con el maximo de cada atributo de este DataSet
 	 */
-	private Row computeMaxRow()
-	{
-		BigDecimal[] max = new BigDecimal[columnSize];
-		for (int i = 0; i < columnSize; i++)
-			max[i] = isNominal(i) ? ZERO :
-					getColumnStream(i)
-							.max(BigDecimal::compareTo).orElse(ZERO);
-		log.debug("max: {}", Arrays.toString(max));
-
-		return new Row(max);
-	}
+	public Row getMaxRow() { return getStatistics().getMaxRow(); }
 
 	public Row getRangeRow()
 	{
@@ -200,17 +262,19 @@ public class DataSet implements Iterable<DataRow>
 	 * @return El resultado de la normalizacion de este DataSet
 	 */
 	public DataSet zScore()
+	{
+		return zScore(false);
+	}
+
+	@Override
+	public DataSet zScore(boolean inPlace)
 	{
 		Row average = computeAverageRow();
-		Row standardDeviation = computeStandardDeviationRow(average);
-
-		DataSet resultSet = new DataSet(
-				attributeType,
-				rows.stream()
-						.map(row -> row
-								.zScore(average, standardDeviation))
-						.collect(Collectors.toList()));
-		log.info("z-score:\n{}", resultSet);
+		Row standardDeviation = getStatistics().getStandardDeviationRow(precision);
+		log.debug("standard deviation: {}", standardDeviation);
+
+		DataSet resultSet = normalize((row, target) -> row
+				.zScore(target, average, standardDeviation), inPlace);
 		return resultSet;
 	}
 
@@ -223,71 +287,7 @@ public class DataSet implements Iterable<DataRow>
 	 */
 	public Row computeAverageRow()
 	{
-		BigDecimal[] avg = new BigDecimal[columnSize];
-		for (int i = 0; i < columnSize; i++)
-			avg[i] = isNominal(i) ? mode(i) :
-					average(i);
-		return new Row(avg);
-	}
-
-	private BigDecimal average(int column)
-	{
-		if (rows.size() == 0) return ZERO;
-		return getColumnStream(column)
-				.reduce(ZERO, BigDecimal::add)
-				.divide(new BigDecimal(rows.size()),
-						precision, RoundingMode.HALF_UP);
-	}
-
-	private BigDecimal mode(int column)
-	{
-		BigDecimal[] columnValues = getColumnStream(column).toArray(BigDecimal[]::new);
-
-		BigDecimal maxValue = ZERO;
-		int maxCount = 0, i, j;
-		for (i = 0; i < columnValues.length; ++i)
-		{
-			int count = 0;
-			for (j = 0; j < columnValues.length; ++j)
-				if (columnValues[j].equals(columnValues[i]))
-					++count;
-
-			if (count > maxCount) {
-				maxCount = count;
-				maxValue = columnValues[i];
-			}
-		}
-		return maxValue;
-	}
-
-//	public Row computeStandardDeviationRow()
-//	{
-//		return computeStandardDeviationRow(computeAverageRow());
-//	}
-
-	/**
-	 * Calcula la desviacion estandar para cada atributo de este DataSet, y retorna el
-	 * resultado en un Row nuevo. Si el atributo es de tipo nominal, entonces
-	 * el resultado asignado para esa columna es 0
-	 *
-	 * @return Un Row con la desviacion estandar de cada atributo de este DataSet
-	 */
-	private Row computeStandardDeviationRow(Row averageRow)
-	{
-		BigDecimal[] stdv = new BigDecimal[columnSize];
-		for (int i = 0; i < columnSize; i++)
-		{
-			BigDecimal avgi = averageRow.get(i);
-			stdv[i] = isNominal(i) ? ZERO :
-					MathTools.sqrt(
-							getColumnStream(i)
-									.map(v -> v.subtract(avgi).pow(2))
-									.reduce(ZERO, BigDecimal::add)
-									.divide(new BigDecimal(rows.size()), RoundingMode.HALF_UP),
-							precision);
-		}
-		log.debug("standard deviation: {}", Arrays.toString(stdv));
-		return new Row(stdv);
+		return getStatistics().getAverageRow(precision);
 	}
 
 	/**
@@ -297,15 +297,16 @@ public class DataSet implements Iterable<DataRow>
 	 * @return El resultado de la normalizacion de este DataSet
 	 */
 	public DataSet decimalScaling()
+	{
+		return decimalScaling(false);
+	}
+
+	@Override
+	public DataSet decimalScaling(boolean inPlace)
 	{
 		int[] tenPowers = getMaxOrderMagnitude();
-		DataSet resultSet = new DataSet(
-				attributeType,
-				rows.stream()
-						.map(row -> row
-								.decimalScaling(tenPowers))
-						.collect(Collectors.toList()));
-		log.info("decimal-scaling:\n{}", resultSet);
+		DataSet resultSet = normalize((row, target) -> row
+				.decimalScaling(target, tenPowers), inPlace);
 		return resultSet;
 	}
 
@@ -318,7 +319,7 @@ public class DataSet implements Iterable<DataRow>
 	 */
 	private int[] getMaxOrderMagnitude()
 	{
-		Row absMaxRow = computeAbsoluteMaxRow();
+		Row absMaxRow = getStatistics().getAbsoluteMaxRow();
 		int[] j = new int[columnSize];
 		for (int i = 0; i < columnSize; i++)
 		{
@@ -339,41 +340,21 @@ public class DataSet implements Iterable<DataRow>
 		return j;
 	}
 
-	/**
-	 * Calcula el maximo absoluto para cada atributo de este DataSet, y retorna el
-	 * resultado en un Row nuevo. Si el atributo es de tipo nominal, entonces
-	 * el resultado asignado para esa columna es 0
-	 *
-	 * @return Un Row con el maximo absoluto de cada atributo de este DataSet
-	 */
-	private Row computeAbsoluteMaxRow()
-	{
-		BigDecimal[] absmax = new BigDecimal[columnSize];
-		for (int i = 0; i < columnSize; i++)
-			absmax[i] = isNominal(i) ? ZERO :
-					getColumnStream(i)
-							.map(BigDecimal::abs)
-							.max(BigDecimal::compareTo).orElse(ZERO);
-		log.debug("Absolute maximum: {}", Arrays.toString(absmax));
+	public int getRowSize() { return rows.size(); }
 
-		return new Row(absmax);
+	@Override
+	public long getMemorySize()
+	{
+		return (long) rows.size() * (ROW_BYTES + (long) columnSize * VALUE_BYTES);
 	}
 
-	/**
-	 * Retorna un Stream con los valores de la columna especificada.
-	 *
-	 * @param column numero de la columna a calcular
-	 * @return un Stream con los valores de una columna especifica.
-	 */
-	private Stream<BigDecimal> getColumnStream(int column)
+	public void clear()
 	{
-		return rows.stream().map(row -> row.get(column));
+		rows.clear();
+		if (statistics != null) statistics = new DataSetStatistics(attributeType, columnSize);
+		rangeRow = null;
 	}
 
-	public int getRowSize() { return rows.size(); }
-
-	public void clear() { rows.removeIf(r -> true); }
-
 	/**
 	 * Retorna true si la columna especificada es atributo de tipo numerico.
 	 *
@@ -413,18 +394,42 @@ public class DataSet implements Iterable<DataRow>
 	 * @return la representacion textual de este DataSet
 	 */
 	@Override
-	public String toString()
+	public String toString() { return toString(rows.size()); }
+
+	@Override
+	public String toString(int maxRows)
 	{
 		StringBuilder sb = new StringBuilder();
-		rows.forEach(r -> sb
-				.append(r)
-				.append("\n"));
-
-		return "DataSet{\n" +
-				"rowSize=" + rows.size() + "\n" +
-				"columnSize=" + columnSize + "\n" +
-				"attributeType=" + attributeType + "\n" +
-				"rows={\n" + sb.toString() + "}" +
-				'}';
+		try
+		{
+			appendTo(sb, maxRows);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Escribe la representacion de toString(int) en el Appendable especificado, instancia
+	 * por instancia.
+	 */
+	void appendTo(Appendable out, int maxRows) throws IOException
+	{
+		out.append("DataSet{\n")
+				.append("rowSize=").append(String.valueOf(rows.size())).append("\n")
+				.append("columnSize=").append(String.valueOf(columnSize)).append("\n")
+				.append("attributeType=").append(String.valueOf(attributeType)).append("\n");
+		if (maxRows < rows.size())
+			out.append("min=").append(String.valueOf(getMinRow())).append("\n")
+					.append("max=").append(String.valueOf(getMaxRow())).append("\n");
+
+		out.append("rows={\n");
+		for (int r = 0; r < Math.min(maxRows, rows.size()); r++)
+			out.append(rows.get(r).toString()).append("\n");
+		if (maxRows < rows.size())
+			out.append("... ").append(String.valueOf(rows.size() - maxRows)).append(" instancias mas\n");
+		out.append("}}");
 	}
 }
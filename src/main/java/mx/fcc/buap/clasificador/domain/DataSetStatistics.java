@@ -0,0 +1,190 @@
+package mx.fcc.buap.clasificador.domain;
+
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * Estadisticas de todas las columnas de un DataSet, calculadas en una sola pasada sobre
+ * sus instancias: minimo, maximo, maximo absoluto, suma y suma de cuadrados de las
+ * columnas numericas, y frecuencia de cada categoria de las nominales, indexada por el
+ * codigo de su diccionario. Como las sumas de
+ * BigDecimal son exactas, la varianza se obtiene de la suma de cuadrados sin perder
+ * precision, y las estadisticas de dos subconjuntos se combinan con merge sin importar
+ * el orden. Por lo mismo, DataSet puede acumularlas con add a medida que se le agregan
+ * instancias, con el mismo resultado que of.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class DataSetStatistics
+{
+	/**
+	 * Numero de instancias a partir del cual la pasada se reparte en el ForkJoinPool comun.
+	 */
+	private static final int PARALLEL_THRESHOLD = 10_000;
+
+	private final AttributeType attributeType;
+	private int count;
+	private final BigDecimal[] min;
+	private final BigDecimal[] max;
+	private final BigDecimal[] absMax;
+	private final BigDecimal[] sum;
+	private final BigDecimal[] sumOfSquares;
+	private final int[][] frequencies;
+
+	DataSetStatistics(AttributeType attributeType, int columnSize)
+	{
+		this.attributeType = attributeType;
+		this.min = new BigDecimal[columnSize];
+		this.max = new BigDecimal[columnSize];
+		this.absMax = new BigDecimal[columnSize];
+		this.sum = new BigDecimal[columnSize];
+		this.sumOfSquares = new BigDecimal[columnSize];
+		this.frequencies = new int[columnSize][];
+		for (int i = 0; i < columnSize; i++)
+		{
+			if (attributeType.isNominal(i)) frequencies[i] = new int[attributeType.getDictionary(i).size()];
+			else sum[i] = sumOfSquares[i] = absMax[i] = ZERO;
+		}
+	}
+
+	/**
+	 * Calcula las estadisticas de todas las columnas del DataSet especificado.
+	 */
+	public static DataSetStatistics of(DataSet dataSet)
+	{
+		AttributeType type = dataSet.getAttributeType();
+		int columnSize = dataSet.getColumnSize();
+		return (dataSet.getRowSize() >= PARALLEL_THRESHOLD ?
+				dataSet.getRows().parallelStream() : dataSet.getRows().stream())
+				.collect(() -> new DataSetStatistics(type, columnSize),
+						DataSetStatistics::add,
+						DataSetStatistics::merge);
+	}
+
+	/**
+	 * Agrega una instancia a estas estadisticas.
+	 */
+	void add(DataRow row)
+	{
+		for (int i = 0; i < min.length; i++)
+		{
+			if (frequencies[i] != null)
+			{
+				int code = row.getCode(i);
+				if (code >= frequencies[i].length)
+					frequencies[i] = Arrays.copyOf(frequencies[i], Math.max(code + 1, 2 * frequencies[i].length));
+				frequencies[i][code]++;
+				continue;
+			}
+			BigDecimal value = row.get(i);
+			if (min[i] == null || value.compareTo(min[i]) < 0) min[i] = value;
+			if (max[i] == null || value.compareTo(max[i]) > 0) max[i] = value;
+			if (value.abs().compareTo(absMax[i]) > 0) absMax[i] = value.abs();
+			sum[i] = sum[i].add(value);
+			sumOfSquares[i] = sumOfSquares[i].add(value.multiply(value));
+		}
+		count++;
+	}
+
+	/**
+	 * Combina con estas estadisticas las de otro subconjunto de instancias.
+	 *
+	 * @param other las estadisticas de las instancias siguientes
+	 */
+	private void merge(DataSetStatistics other)
+	{
+		for (int i = 0; i < min.length; i++)
+		{
+			if (frequencies[i] != null)
+			{
+				int[] counts = other.frequencies[i];
+				if (counts.length > frequencies[i].length)
+					frequencies[i] = Arrays.copyOf(frequencies[i], counts.length);
+				for (int code = 0; code < counts.length; code++)
+					frequencies[i][code] += counts[code];
+				continue;
+			}
+			if (min[i] == null || other.min[i] != null && other.min[i].compareTo(min[i]) < 0) min[i] = other.min[i];
+			if (max[i] == null || other.max[i] != null && other.max[i].compareTo(max[i]) > 0) max[i] = other.max[i];
+			if (other.absMax[i].compareTo(absMax[i]) > 0) absMax[i] = other.absMax[i];
+			sum[i] = sum[i].add(other.sum[i]);
+			sumOfSquares[i] = sumOfSquares[i].add(other.sumOfSquares[i]);
+		}
+		count += other.count;
+	}
+
+	public int getCount() { return count; }
+
+	/**
+	 * Retorna un Row con el minimo de cada columna, o 0 en las columnas nominales.
+	 */
+	public Row getMinRow() { return numerical(min); }
+
+	/**
+	 * Retorna un Row con el maximo de cada columna, o 0 en las columnas nominales.
+	 */
+	public Row getMaxRow() { return numerical(max); }
+
+	/**
+	 * Retorna un Row con el maximo absoluto de cada columna, o 0 en las columnas nominales.
+	 */
+	public Row getAbsoluteMaxRow() { return numerical(absMax); }
+
+	/**
+	 * Retorna un Row con el promedio de cada columna numerica y la moda de cada columna
+	 * nominal; en caso de empate la moda es la categoria con el codigo menor.
+	 *
+	 * @param precision la precision del promedio
+	 */
+	public Row getAverageRow(NumericPrecision precision)
+	{
+		BigDecimal[] average = new BigDecimal[min.length];
+		for (int i = 0; i < average.length; i++)
+			average[i] = frequencies[i] != null ? mode(i) :
+					count == 0 ? ZERO :
+					precision.divide(sum[i], new BigDecimal(count));
+		return new Row(average);
+	}
+
+	/**
+	 * Retorna un Row con la desviacion estandar poblacional de cada columna, o 0 en las
+	 * columnas nominales.
+	 *
+	 * @param precision la precision de la desviacion estandar
+	 */
+	public Row getStandardDeviationRow(NumericPrecision precision)
+	{
+		BigDecimal[] deviation = new BigDecimal[min.length];
+		BigDecimal n = new BigDecimal(count);
+		for (int i = 0; i < deviation.length; i++)
+		{
+			if (frequencies[i] != null || count == 0)
+			{
+				deviation[i] = ZERO;
+				continue;
+			}
+			BigDecimal variance = precision.divide(sumOfSquares[i].multiply(n)
+					.subtract(sum[i].multiply(sum[i])), n.multiply(n));
+			deviation[i] = precision.sqrt(variance);
+		}
+		return new Row(deviation);
+	}
+
+	private BigDecimal mode(int column)
+	{
+		return count == 0 ? ZERO :
+				attributeType.getDictionary(column).decode(ClusterStatistics.mode(frequencies[column]));
+	}
+
+	private Row numerical(BigDecimal[] values)
+	{
+		BigDecimal[] result = new BigDecimal[values.length];
+		for (int i = 0; i < result.length; i++)
+			result[i] = attributeType.isNominal(i) || values[i] == null ? ZERO : values[i];
+		return new Row(result);
+	}
+}
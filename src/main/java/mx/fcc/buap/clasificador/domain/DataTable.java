@@ -0,0 +1,139 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Operaciones comunes a los distintos modelos de almacenamiento de un conjunto de datos:
+ * el modelo exacto basado en BigDecimal (DataSet) y el modelo columnar basado en
+ * arreglos primitivos (ColumnarDataSet).
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public interface DataTable
+{
+	int getRowSize();
+
+	int getColumnSize();
+
+	AttributeType getAttributeType();
+
+	/**
+	 * Retorna una estimacion de los bytes del heap que ocupan los valores de esta tabla.
+	 * Los datos mapeados en memoria desde un archivo no se cuentan.
+	 *
+	 * @return el tamaño aproximado de esta tabla en el heap
+	 */
+	long getMemorySize();
+
+	/**
+	 * Representa esta tabla con a lo mas maxRows instancias. Si se omiten instancias,
+	 * incluye el minimo y el maximo de cada columna, de modo que el resumen de una tabla
+	 * grande cuesta lo mismo que el de una pequeña.
+	 *
+	 * @param maxRows el numero maximo de instancias a incluir
+	 * @return la representacion textual de esta tabla
+	 */
+	String toString(int maxRows);
+
+	/**
+	 * Calcula la distancia entre dos instancias de esta tabla, la misma que usa k-means.
+	 *
+	 * @param a el numero de la primera instancia
+	 * @param b el numero de la segunda instancia
+	 * @return la distancia entre las instancias
+	 */
+	double distance(int a, int b);
+
+	/**
+	 * Normaliza esta tabla mediante el metodo min-max, y retorna el resultado en una
+	 * tabla nueva del mismo tipo.
+	 *
+	 * @param newMin el nuevo minimo para todas las columnas
+	 * @param newMax el nuevo maximo para todas las columnas
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable minMax(BigDecimal newMin, BigDecimal newMax);
+
+	/**
+	 * Normaliza esta tabla mediante el metodo min-max. Si inPlace es true, la
+	 * normalizacion reutiliza o libera la memoria de esta tabla a medida que avanza, de
+	 * modo que no hay dos copias de los datos al mismo tiempo, y esta tabla ya no debe
+	 * usarse despues; conviene con una tabla recien leida que nadie mas comparte.
+	 *
+	 * @param newMin el nuevo minimo para todas las columnas
+	 * @param newMax el nuevo maximo para todas las columnas
+	 * @param inPlace si se reutiliza la memoria de esta tabla
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable minMax(BigDecimal newMin, BigDecimal newMax, boolean inPlace);
+
+	/**
+	 * Normaliza esta tabla mediante el metodo z-score, y retorna el resultado en una
+	 * tabla nueva del mismo tipo.
+	 *
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable zScore();
+
+	/**
+	 * Normaliza esta tabla mediante el metodo z-score.
+	 *
+	 * @param inPlace si se reutiliza la memoria de esta tabla, como en minMax
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable zScore(boolean inPlace);
+
+	/**
+	 * Normaliza esta tabla mediante el metodo decimal-scaling, y retorna el resultado en una
+	 * tabla nueva del mismo tipo.
+	 *
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable decimalScaling();
+
+	/**
+	 * Normaliza esta tabla mediante el metodo decimal-scaling.
+	 *
+	 * @param inPlace si se reutiliza la memoria de esta tabla, como en minMax
+	 * @return El resultado de la normalizacion de esta tabla
+	 */
+	DataTable decimalScaling(boolean inPlace);
+
+	/**
+	 * Clasifica esta tabla mediante el metodo k-means, partiendo de k centroides aleatorios.
+	 *
+	 * @param k El numero de clusters
+	 * @return El conjunto de clusters encontrados.
+	 */
+	default Clustering kMeans(int k) { return kMeans(k, new KMeansOptions()); }
+
+	/**
+	 * Clasifica esta tabla mediante el metodo k-means, partiendo de k centroides aleatorios.
+	 *
+	 * @param k El numero de clusters
+	 * @param options Los parametros de la ejecucion
+	 * @return El conjunto de clusters encontrados.
+	 */
+	Clustering kMeans(int k, KMeansOptions options);
+
+	/**
+	 * Clasifica esta tabla mediante el metodo k-means, partiendo de los centroides especificados.
+	 *
+	 * @param centroids Los centroides iniciales
+	 * @return El conjunto de clusters encontrados.
+	 */
+	default Clustering kMeans(Set<Row> centroids) { return kMeans(centroids, new KMeansOptions()); }
+
+	/**
+	 * Clasifica esta tabla mediante el metodo k-means, partiendo de los centroides especificados.
+	 *
+	 * @param centroids Los centroides iniciales
+	 * @param options Los parametros de la ejecucion
+	 * @return El conjunto de clusters encontrados.
+	 */
+	Clustering kMeans(Set<Row> centroids, KMeansOptions options);
+}
@@ -0,0 +1,66 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.tools.MathTools;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Precision con la que se calculan la normalizacion, las distancias y los centroides.
+ * DOUBLE se calcula con double en el modelo columnar; DECIMAL64 y HIGH se calculan con
+ * BigDecimal en el modelo exacto, redondeando cada division y raiz cuadrada.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum NumericPrecision
+{
+	/**
+	 * double en un ColumnarDataSet. Si un DataSet la usa, se comporta como DECIMAL64,
+	 * que tiene los mismos digitos significativos.
+	 */
+	DOUBLE(StorageMode.FAST, MathContext.DECIMAL64, 0),
+
+	/**
+	 * BigDecimal con 16 digitos significativos (MathContext.DECIMAL64).
+	 */
+	DECIMAL64(StorageMode.EXACT, MathContext.DECIMAL64, 0),
+
+	/**
+	 * BigDecimal con 25 decimales; los cuadrados de las distancias no se redondean.
+	 */
+	HIGH(StorageMode.EXACT, null, 25);
+
+	private final StorageMode mode;
+	private final MathContext context;
+	private final int scale;
+
+	NumericPrecision(StorageMode mode, MathContext context, int scale)
+	{
+		this.mode = mode;
+		this.context = context;
+		this.scale = scale;
+	}
+
+	/**
+	 * Retorna el modelo de almacenamiento que calcula con esta precision.
+	 */
+	public StorageMode getMode() { return mode; }
+
+	public BigDecimal divide(BigDecimal dividend, BigDecimal divisor)
+	{
+		return context != null ? dividend.divide(divisor, context) :
+				dividend.divide(divisor, scale, RoundingMode.HALF_UP);
+	}
+
+	public BigDecimal square(BigDecimal value)
+	{
+		return context != null ? value.multiply(value, context) : value.pow(2);
+	}
+
+	public BigDecimal sqrt(BigDecimal value)
+	{
+		return context != null ? MathTools.sqrt(value, context) : MathTools.sqrt(value, scale);
+	}
+}
@@ -0,0 +1,99 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.tools.ColorTools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Construye los datos de la grafica de resultados recorriendo una sola vez las instancias
+ * clasificadas y conservando a lo mas maxPoints puntos por cluster, por lo que el tamaño
+ * de la pagina no depende del tamaño del DataSet.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+final class PlotSampler
+{
+	private static final long SEED = 0x5EED;
+
+	private PlotSampler() {}
+
+	/**
+	 * Retorna un mapa por cluster con los puntos ("data"), el color ("color"), el nombre
+	 * con el numero de instancias ("name"), el numero de instancias ("count") y el
+	 * centroide ("centroid"), proyectados en las columnas especificadas.
+	 *
+	 * @param clusters la clasificacion a graficar
+	 * @param columns las tres columnas que se grafican; -1 grafica 0 en ese eje
+	 * @param maxPoints el numero maximo de puntos por cluster
+	 * @param sampling la forma de escoger los puntos de los clusters grandes
+	 */
+	static List<Map<String, Object>> sample(Clustering clusters, int[] columns, int maxPoints, PlotSampling sampling)
+	{
+		int k = clusters.size();
+		int[] counts = new int[k];
+		int[] seen = new int[k];
+		Object[][][] points = new Object[k][][];
+		for (int c = 0; c < k; c++)
+		{
+			counts[c] = clusters.getClusterSize(c);
+			points[c] = new Object[Math.min(counts[c], maxPoints)][];
+		}
+		Random random = new Random(SEED);
+		try
+		{
+			clusters.forEachAssignment((row, c, values) -> {
+				int slot = slot(seen[c]++, counts[c], points[c].length, sampling, random);
+				if (slot >= 0) points[c][slot] = project(values, columns);
+			});
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		List<Map<String, Object>> json = new ArrayList<>(k);
+		for (int c = 0; c < k; c++)
+		{
+			Map<String, Object> map = new HashMap<>();
+			map.put("name", "Cluster " + (c + 1) + " (" + counts[c] + ")");
+			map.put("data", points[c]);
+			map.put("count", counts[c]);
+			map.put("centroid", project(clusters.getCentroidValues(c), columns));
+			map.put("color", ColorTools.getRandomColorRGB());
+			json.add(map);
+		}
+		return json;
+	}
+
+	/**
+	 * Retorna la posicion en la que se guarda la instancia numero seen del cluster, o -1
+	 * si no se grafica.
+	 */
+	private static int slot(int seen, int count, int capacity, PlotSampling sampling, Random random)
+	{
+		if (count <= capacity) return seen;
+		if (sampling == PlotSampling.STRATIFIED)
+		{
+			long stratum = (long) seen * capacity / count;
+			return seen == 0 || (long) (seen - 1) * capacity / count != stratum ? (int) stratum : -1;
+		}
+		if (seen < capacity) return seen;
+		int j = random.nextInt(seen + 1);
+		return j < capacity ? j : -1;
+	}
+
+	private static Object[] project(Number[] values, int[] columns)
+	{
+		Object[] point = new Object[columns.length];
+		for (int i = 0; i < columns.length; i++)
+			point[i] = columns[i] != -1 ? values[columns[i]] : 0;
+		return point;
+	}
+}
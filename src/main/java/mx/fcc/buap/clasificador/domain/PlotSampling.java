@@ -0,0 +1,23 @@
+package mx.fcc.buap.clasificador.domain;
+
+/**
+ * Forma en que se escogen los puntos de cada cluster que se envian a la grafica cuando el
+ * cluster tiene mas puntos que el maximo permitido.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum PlotSampling
+{
+	/**
+	 * Divide las instancias del cluster, en el orden del archivo, en tantos estratos como
+	 * puntos se permiten y toma la primera instancia de cada uno.
+	 */
+	STRATIFIED,
+
+	/**
+	 * Toma una muestra aleatoria uniforme del cluster, que conserva la densidad de puntos
+	 * de cada region. Usa una semilla fija, por lo que la grafica no cambia al recargarla.
+	 */
+	RANDOM
+}
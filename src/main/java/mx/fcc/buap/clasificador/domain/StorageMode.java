@@ -0,0 +1,21 @@
+package mx.fcc.buap.clasificador.domain;
+
+/**
+ * Modelo de almacenamiento con el que se carga un conjunto de datos.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum StorageMode
+{
+	/**
+	 * Cada valor se guarda como BigDecimal dentro de un DataRow (DataSet).
+	 */
+	EXACT,
+
+	/**
+	 * Cada columna numerica se guarda en un double[] y cada columna nominal en un
+	 * int[] de codigos (ColumnarDataSet).
+	 */
+	FAST
+}
@@ -1,6 +1,11 @@
 package mx.fcc.buap.clasificador.dto;
 
 import lombok.Data;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.kmeans.Initialization;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.service.ReportFormat;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -13,4 +18,19 @@ public class ClusterForm
 	private String method;
 	private int numberOfClusters;
 	private MultipartFile centroids;
+	private StorageMode mode;
+	private NumericPrecision precision;
+	private boolean parallel;
+	private Long seed;
+	private KMeansAlgorithm algorithm = KMeansAlgorithm.LLOYD;
+	private Initialization initialization = Initialization.KMEANS_PLUS_PLUS;
+	private Integer batchSize;
+	private Integer maxIterations;
+	private Double tolerance;
+	private Double minImprovement;
+	private Long timeBudgetMillis;
+	private Integer restarts;
+	private Integer maxClusters;
+	private ReportFormat reportFormat = ReportFormat.TEXT;
+	private boolean compressReport;
 }
@@ -0,0 +1,42 @@
+package mx.fcc.buap.clasificador.dto;
+
+import lombok.Data;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.kmeans.Initialization;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.service.ReportFormat;
+
+/**
+ * Parametros de una clasificacion: el archivo, la normalizacion y las opciones de k-means.
+ * Se especifica numberOfClusters o el nombre del archivo de centroides. Los criterios de
+ * paro que no se especifican toman el valor por omision de KMeansOptions. Si maxClusters
+ * es mayor que numberOfClusters se ejecuta un barrido de k entre ambos. Si se especifica
+ * precision, determina el modelo de almacenamiento en lugar de mode.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Data
+public class ClusteringRequest
+{
+	private String filename;
+	private String method;
+	private Integer numberOfClusters;
+	private String centroids;
+	private StorageMode mode;
+	private NumericPrecision precision;
+	private boolean parallel;
+	private Long seed;
+	private KMeansAlgorithm algorithm = KMeansAlgorithm.LLOYD;
+	private Integer batchSize;
+	private Initialization initialization = Initialization.KMEANS_PLUS_PLUS;
+	private Integer maxIterations;
+	private Double tolerance;
+	private Double minImprovement;
+	private Long timeBudgetMillis;
+	private Integer restarts;
+	private Integer maxClusters;
+	private ReportFormat reportFormat = ReportFormat.TEXT;
+	private boolean compressReport;
+}
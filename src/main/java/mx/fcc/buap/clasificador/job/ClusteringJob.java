@@ -0,0 +1,94 @@
+package mx.fcc.buap.clasificador.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.dto.ClusteringRequest;
+import mx.fcc.buap.clasificador.kmeans.KSweep;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+import mx.fcc.buap.clasificador.kmeans.SweepPoint;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estado de una clasificacion asincrona. El hilo que la ejecuta actualiza la etapa, la
+ * iteracion y la inercia, y cualquier otro hilo puede consultarlas mientras tanto. La
+ * inercia es null mientras no se conoce: solo se calcula en cada iteracion si la
+ * solicitud tiene un minImprovement, y siempre al terminar la clasificacion. Se
+ * serializa a JSON en el endpoint de estado, sin el resultado. Si la clasificacion fue un
+ * barrido de k, tambien se serializan la inercia y la silueta de cada k. loggingMillis es
+ * el tiempo que el trabajo ha dedicado a registrar sus tablas en el log. El resultado en
+ * memoria puede descartarse despues de terminar, y entonces getResult retorna null.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Getter
+public class ClusteringJob
+{
+	private final String id;
+	private final ClusteringRequest request;
+	private final Instant submitted = Instant.now();
+	private volatile Instant finished;
+	private volatile JobPhase phase = JobPhase.QUEUED;
+	private volatile int iteration;
+	private volatile Double inertia;
+	private volatile String error;
+	private volatile String resultFilename;
+	private volatile StopReason stopReason;
+	private volatile List<SweepPoint> sweep;
+	private volatile Integer elbow;
+	private volatile Integer bestK;
+	@Getter(AccessLevel.NONE) private volatile long loggingNanos;
+	@JsonIgnore private volatile Clustering result;
+
+	ClusteringJob(String id, ClusteringRequest request)
+	{
+		this.id = id;
+		this.request = request;
+	}
+
+	void setPhase(JobPhase phase) { this.phase = phase; }
+
+	void setProgress(int iteration, double inertia)
+	{
+		this.iteration = iteration;
+		this.inertia = Double.isNaN(inertia) ? null : inertia;
+	}
+
+	void addLoggingTime(long nanos) { loggingNanos += nanos; }
+
+	public double getLoggingMillis() { return loggingNanos / 1e6; }
+
+	void complete(Clustering result, String resultFilename)
+	{
+		this.result = result;
+		this.resultFilename = resultFilename;
+		this.inertia = result.getInertia();
+		this.stopReason = result.getStopReason();
+		this.finished = Instant.now();
+		this.phase = JobPhase.DONE;
+	}
+
+	void complete(KSweep sweep, String resultFilename)
+	{
+		this.sweep = sweep.getPoints();
+		this.elbow = sweep.getElbow();
+		this.bestK = sweep.getBest();
+		complete(sweep.getClustering(), resultFilename);
+	}
+
+	/**
+	 * Descarta el resultado en memoria; el estado y el archivo de resultado se conservan.
+	 */
+	void releaseResult() { result = null; }
+
+	void fail(String error)
+	{
+		this.error = error;
+		this.finished = Instant.now();
+		this.phase = JobPhase.FAILED;
+	}
+}
@@ -0,0 +1,343 @@
+package mx.fcc.buap.clasificador.job;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.dto.ClusteringRequest;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.KMeansListener;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.kmeans.KSweep;
+import mx.fcc.buap.clasificador.kmeans.SweepPoint;
+import mx.fcc.buap.clasificador.service.ClusteringReportWriter;
+import mx.fcc.buap.clasificador.service.DataSetCache;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import mx.fcc.buap.clasificador.service.Diagnostics;
+import mx.fcc.buap.clasificador.service.ReportFormat;
+import mx.fcc.buap.clasificador.storage.StorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta las clasificaciones fuera del hilo de la peticion. Cada solicitud recibe un
+ * identificador de inmediato y se ejecuta en un pool de tamaño fijo con una cola
+ * acotada; cuando la cola esta llena la solicitud se rechaza con JobRejectedException en
+ * lugar de ocupar otro hilo del servidor. Las clasificaciones terminadas se conservan
+ * hasta que hay mas de ClasificadorProperties.Jobs.retained, y entonces se descartan las
+ * mas antiguas. Como cada resultado retiene la tabla que clasifica, solo los resultados
+ * mas recientes que caben en Jobs.maxResultSize se conservan en memoria; las demas
+ * clasificaciones terminadas conservan su estado y su archivo de resultado.
+ * <p>
+ * Cada clasificacion lee el archivo acumulando las estadisticas de sus columnas, lo
+ * normaliza en su lugar y clasifica la tabla normalizada, que es la unica que se guarda
+ * en el cache.
+ * <p>
+ * El reporte de cada clasificacion lleva su identificador en el nombre, de modo que dos
+ * clasificaciones del mismo archivo no escriben el mismo reporte.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Service
+@Log4j2
+public class ClusteringJobService
+{
+	private static final String[] normalizationMethods = new String[]
+			{ "min-max", "z-score", "decimal-scaling" };
+
+	private final StorageService storageService;
+	private final DataSetService dataSetService;
+	private final DataSetCache dataSetCache;
+	private final Diagnostics diagnostics;
+	private final ForkJoinPool kMeansPool;
+	private final ThreadPoolExecutor executor;
+	private final int retained;
+	private final long maxResultBytes;
+	private final int silhouetteSample;
+	private final LinkedHashMap<String, ClusteringJob> jobs = new LinkedHashMap<>();
+
+	@Autowired
+	public ClusteringJobService(StorageService storageService, DataSetService dataSetService,
+	                            DataSetCache dataSetCache, Diagnostics diagnostics, ForkJoinPool kMeansPool,
+	                            ClasificadorProperties properties, MeterRegistry registry)
+	{
+		this.storageService = storageService;
+		this.dataSetService = dataSetService;
+		this.dataSetCache = dataSetCache;
+		this.diagnostics = diagnostics;
+		this.kMeansPool = kMeansPool;
+		this.retained = properties.getJobs().getRetained();
+		this.maxResultBytes = properties.getJobs().getMaxResultSize().toBytes();
+		this.silhouetteSample = properties.getJobs().getSilhouetteSample();
+
+		int threads = properties.getJobs().getThreads();
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(properties.getJobs().getQueueCapacity()),
+				r -> {
+					Thread thread = new Thread(r, "clasificador-job-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		Gauge.builder("clasificador.jobs.queued", executor, e -> e.getQueue().size()).register(registry);
+		Gauge.builder("clasificador.jobs.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+	}
+
+	public static String[] getNormalizationMethods() { return normalizationMethods.clone(); }
+
+	/**
+	 * Encola una clasificacion y retorna su estado sin esperar a que se ejecute.
+	 *
+	 * @param request los parametros de la clasificacion
+	 * @return el trabajo, en la etapa QUEUED
+	 * @throws IllegalArgumentException si el metodo de normalizacion no existe, si el
+	 *                                  algoritmo no esta implementado en el modelo solicitado,
+	 *                                  si el archivo o los centroides no son archivos de la
+	 *                                  carpeta de almacenamiento, o si no hay centroides y el
+	 *                                  numero de clusters o el rango del barrido no son validos
+	 * @throws JobRejectedException si la cola esta llena
+	 */
+	public ClusteringJob submit(ClusteringRequest request)
+	{
+		checkStoredFile(request.getFilename());
+		if (request.getCentroids() != null) checkStoredFile(request.getCentroids());
+		else checkClusters(request.getNumberOfClusters(), request.getMaxClusters());
+		storageMode(request);
+		for (String method : normalizationMethods)
+			if (method.equals(request.getMethod()))
+			{
+				ClusteringJob job = new ClusteringJob(UUID.randomUUID().toString(), request);
+				synchronized (jobs) { jobs.put(job.getId(), job); }
+				try
+				{
+					executor.execute(() -> run(job));
+				}
+				catch (RejectedExecutionException e)
+				{
+					synchronized (jobs) { jobs.remove(job.getId()); }
+					throw new JobRejectedException("La cola de clasificaciones esta llena", e);
+				}
+				log.debug("Encolado el trabajo {} ({})", job.getId(), request);
+				return job;
+			}
+		throw new IllegalArgumentException("Metodo de normalizacion desconocido: " + request.getMethod());
+	}
+
+	/**
+	 * Verifica que el nombre sea el de un archivo de la carpeta de almacenamiento, como lo
+	 * hace FileSystemStorageService.store, para que una solicitud no lea ni escriba
+	 * archivos fuera de ella.
+	 *
+	 * @throws IllegalArgumentException si el nombre es vacio, tiene un separador de ruta o
+	 *                                  "..", o no esta dentro de la carpeta
+	 */
+	private void checkStoredFile(String filename)
+	{
+		if (filename == null || filename.isEmpty() || filename.contains("..") ||
+				filename.contains("/") || filename.contains("\\"))
+			throw new IllegalArgumentException("Nombre de archivo invalido: " + filename);
+		Path root = storageService.load("").toAbsolutePath().normalize();
+		Path file = storageService.load(filename).toAbsolutePath().normalize();
+		if (!root.equals(file.getParent()))
+			throw new IllegalArgumentException("Nombre de archivo invalido: " + filename);
+	}
+
+	/**
+	 * Verifica que haya al menos un cluster y, si se pide un barrido de k, que empiece en
+	 * al menos 2 clusters y que maxClusters no sea menor que numberOfClusters.
+	 */
+	private static void checkClusters(Integer numberOfClusters, Integer maxClusters)
+	{
+		if (numberOfClusters == null || numberOfClusters < 1)
+			throw new IllegalArgumentException("Numero de clusters invalido: " + numberOfClusters);
+		if (maxClusters == null) return;
+		if (maxClusters < numberOfClusters || maxClusters > numberOfClusters && numberOfClusters < 2)
+			throw new IllegalArgumentException("Rango de k invalido: " + numberOfClusters + " a " + maxClusters);
+	}
+
+	/**
+	 * Retorna el trabajo con el identificador especificado, o null si no existe o ya se
+	 * descarto.
+	 */
+	public ClusteringJob get(String id)
+	{
+		synchronized (jobs) { return jobs.get(id); }
+	}
+
+	private void run(ClusteringJob job)
+	{
+		ClusteringRequest request = job.getRequest();
+		String filename = request.getFilename();
+		try
+		{
+			Path file = storageService.load(filename);
+			NumericPrecision precision = request.getPrecision();
+			StorageMode mode = storageMode(request);
+			DataTable normalized = dataSetCache.get(file, mode, precision, request.getMethod(), () -> {
+				job.setPhase(JobPhase.PARSING);
+				DataTable dataSet = dataSetService.read(file, mode, precision);
+				job.addLoggingTime(diagnostics.table("Original", dataSet));
+				job.setPhase(JobPhase.NORMALIZING);
+				DataTable result = normalize(dataSet, request.getMethod());
+				job.addLoggingTime(diagnostics.table(request.getMethod(), result));
+				return result;
+			});
+
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(request.getSeed());
+			options.setAlgorithm(request.getAlgorithm());
+			options.setInitialization(request.getInitialization());
+			if (request.getBatchSize() != null) options.setBatchSize(request.getBatchSize());
+			if (request.getMaxIterations() != null) options.setMaxIterations(request.getMaxIterations());
+			if (request.getTolerance() != null) options.setTolerance(request.getTolerance());
+			if (request.getMinImprovement() != null) options.setMinImprovement(request.getMinImprovement());
+			if (request.getTimeBudgetMillis() != null)
+				options.setTimeBudget(Duration.ofMillis(request.getTimeBudgetMillis()));
+			if (request.getRestarts() != null) options.setRestarts(request.getRestarts());
+			if (request.isParallel() || options.getRestarts() > 1) options.setPool(kMeansPool);
+			options.setListener(KMeansListener.withoutInertia(job::setProgress));
+
+			job.setPhase(JobPhase.CLUSTERING);
+			Clustering clusters;
+			KSweep sweep = null;
+			if (request.getCentroids() != null)
+				clusters = normalized
+						.kMeans(dataSetService
+								.convertToRow(storageService
+										.loadAsResource(request.getCentroids())
+										.getFile().toPath()), options);
+			else if (request.getMaxClusters() != null && request.getMaxClusters() > request.getNumberOfClusters())
+			{
+				sweep = KSweep.run(normalized, request.getNumberOfClusters(), request.getMaxClusters(),
+						options, silhouetteSample);
+				clusters = sweep.getClustering();
+				for (SweepPoint point : sweep.getPoints())
+					log.info("k={}: inercia {}, silueta {}", point.getK(), point.getInertia(), point.getSilhouette());
+			}
+			else
+				clusters = normalized
+						.kMeans(request.getNumberOfClusters(), options);
+
+			job.addLoggingTime(diagnostics.clustering(clusters));
+			log.info("k-means se detuvo por {} despues de {} iteraciones", clusters.getStopReason(), clusters.getIterations());
+			if (clusters.getSkippedDistances() > 0)
+				log.info("Distancias evitadas por {}: {}", request.getAlgorithm(), clusters.getSkippedDistances());
+
+			ReportFormat format = request.getReportFormat() != null ? request.getReportFormat() : ReportFormat.TEXT;
+			String resultFilename = filename + "-clusters-" + job.getId() + "." + format.getExtension();
+			Clustering result = clusters;
+			storageService.store(resultFilename, out -> ClusteringReportWriter.write(result, format, out),
+					request.isCompressReport());
+			log.debug("Tiempo de registro del trabajo {}: {} ms", job.getId(), job.getLoggingMillis());
+			if (sweep != null) job.complete(sweep, resultFilename);
+			else job.complete(clusters, resultFilename);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.error("Fallo el trabajo " + job.getId() + " sobre " + filename, e);
+			job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+		finally
+		{
+			prune();
+		}
+	}
+
+	/**
+	 * Retorna el modelo de almacenamiento con el que se ejecuta la solicitud: el de su
+	 * precision, el de mode, o null para escogerlo segun el tamaño del archivo. HAMERLY y
+	 * MINI_BATCH solo estan implementados en el modelo columnar, por lo que se ejecutan
+	 * con FAST.
+	 *
+	 * @throws IllegalArgumentException si la solicitud pide el modelo exacto con un
+	 *                                  algoritmo distinto de LLOYD
+	 */
+	static StorageMode storageMode(ClusteringRequest request)
+	{
+		NumericPrecision precision = request.getPrecision();
+		StorageMode mode = precision != null ? precision.getMode() : request.getMode();
+		if (request.getAlgorithm() == null || request.getAlgorithm() == KMeansAlgorithm.LLOYD) return mode;
+		if (mode == StorageMode.EXACT)
+			throw new IllegalArgumentException("El modelo exacto no implementa " + request.getAlgorithm());
+		return StorageMode.FAST;
+	}
+
+	/**
+	 * Normaliza en su lugar la tabla recien leida con el metodo especificado, de modo que
+	 * durante la clasificacion solo hay una copia de los datos.
+	 */
+	private DataTable normalize(DataTable dataSet, String method)
+	{
+		if (method.equals("min-max"))
+			return dataSet
+					.minMax(BigDecimal.ZERO, BigDecimal.ONE, true);
+		else if (method.equals("z-score"))
+			return dataSet
+					.zScore(true);
+		else
+			return dataSet
+					.decimalScaling(true);
+	}
+
+	/**
+	 * Descarta las clasificaciones terminadas mas antiguas que exceden retained, y los
+	 * resultados en memoria que exceden maxResultBytes, empezando por los mas antiguos. El
+	 * resultado mas reciente se conserva aunque exceda el limite.
+	 */
+	private void prune()
+	{
+		synchronized (jobs)
+		{
+			int finished = 0;
+			for (ClusteringJob job : jobs.values())
+				if (job.getPhase().isFinished()) finished++;
+			Iterator<Map.Entry<String, ClusteringJob>> it = jobs.entrySet().iterator();
+			while (finished > retained && it.hasNext())
+				if (it.next().getValue().getPhase().isFinished())
+				{
+					it.remove();
+					finished--;
+				}
+
+			List<ClusteringJob> newestFirst = new ArrayList<>(jobs.values());
+			Collections.reverse(newestFirst);
+			long bytes = 0;
+			boolean kept = false;
+			for (ClusteringJob job : newestFirst)
+			{
+				Clustering result = job.getResult();
+				if (result == null) continue;
+				bytes += result.getMemorySize();
+				if (kept && bytes > maxResultBytes)
+				{
+					log.debug("Descartando de memoria el resultado del trabajo {}", job.getId());
+					job.releaseResult();
+				}
+				kept = true;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() { executor.shutdownNow(); }
+}
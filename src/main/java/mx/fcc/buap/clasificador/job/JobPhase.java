@@ -0,0 +1,42 @@
+package mx.fcc.buap.clasificador.job;
+
+/**
+ * Etapas por las que pasa una clasificacion asincrona.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum JobPhase
+{
+	/**
+	 * Espera un hilo libre.
+	 */
+	QUEUED,
+
+	/**
+	 * Lee el archivo.
+	 */
+	PARSING,
+
+	/**
+	 * Normaliza la tabla leida.
+	 */
+	NORMALIZING,
+
+	/**
+	 * Ejecuta k-means; el trabajo reporta la iteracion y la inercia.
+	 */
+	CLUSTERING,
+
+	/**
+	 * Termino; el resultado esta disponible.
+	 */
+	DONE,
+
+	/**
+	 * Termino con un error.
+	 */
+	FAILED;
+
+	public boolean isFinished() { return this == DONE || this == FAILED; }
+}
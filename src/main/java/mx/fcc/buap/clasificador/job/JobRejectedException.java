@@ -0,0 +1,19 @@
+package mx.fcc.buap.clasificador.job;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se lanza cuando la cola de clasificaciones esta llena.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class JobRejectedException extends RuntimeException
+{
+	public JobRejectedException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+}
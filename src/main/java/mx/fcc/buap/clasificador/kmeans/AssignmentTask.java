@@ -0,0 +1,98 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Asigna un rango de instancias de un ColumnarDataSet al centroide mas cercano y acumula
+ * sus sumas parciales por cluster. Los rangos se dividen a la mitad hasta tener a lo mas
+ * LEAF_SIZE instancias, y las sumas de cada mitad se combinan de izquierda a derecha.
+ * Como la division no depende del numero de hilos, el resultado es el mismo al
+ * ejecutarse en un ForkJoinPool de cualquier tamaño o en un solo hilo.
+ * <p>
+ * Si se especifican cotas de distancia, cada instancia se asigna con el algoritmo de
+ * Hamerly, que da el mismo resultado evitando la mayoria de las comparaciones.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class AssignmentTask extends RecursiveTask<PartialSums>
+{
+	static final int LEAF_SIZE = 8192;
+
+	private final ColumnarDataSet dataSet;
+	private final SquaredDistance distance;
+	private final double[][] centroids;
+	private final int[] assignment;
+	private final DistanceBounds bounds;
+	private final int from;
+	private final int to;
+	private final boolean fork;
+
+	private AssignmentTask(ColumnarDataSet dataSet, SquaredDistance distance, double[][] centroids,
+	                       int[] assignment, DistanceBounds bounds, int from, int to, boolean fork)
+	{
+		this.dataSet = dataSet;
+		this.distance = distance;
+		this.centroids = centroids;
+		this.assignment = assignment;
+		this.bounds = bounds;
+		this.from = from;
+		this.to = to;
+		this.fork = fork;
+	}
+
+	/**
+	 * Asigna todas las instancias al centroide mas cercano, actualizando el arreglo de
+	 * asignaciones, y retorna las sumas parciales de todos los clusters.
+	 *
+	 * @param bounds las cotas del algoritmo de Hamerly, o null para comparar cada instancia
+	 *               con todos los centroides
+	 * @param pool el pool en el que se reparte el trabajo, o null para usar el hilo actual
+	 * @return las sumas de todas las instancias por cluster
+	 */
+	public static PartialSums assign(ColumnarDataSet dataSet, SquaredDistance distance,
+	                                 double[][] centroids, int[] assignment,
+	                                 DistanceBounds bounds, ForkJoinPool pool)
+	{
+		AssignmentTask task = new AssignmentTask(
+				dataSet, distance, centroids, assignment, bounds, 0, assignment.length, pool != null);
+		return pool != null ? pool.invoke(task) : task.compute();
+	}
+
+	@Override
+	protected PartialSums compute()
+	{
+		if (to - from <= LEAF_SIZE)
+			return computeLeaf();
+
+		int middle = (from + to) >>> 1;
+		AssignmentTask left = new AssignmentTask(dataSet, distance, centroids, assignment, bounds, from, middle, fork);
+		AssignmentTask right = new AssignmentTask(dataSet, distance, centroids, assignment, bounds, middle, to, fork);
+		if (fork)
+		{
+			left.fork();
+			PartialSums rightSums = right.compute();
+			return left.join().merge(rightSums);
+		}
+		PartialSums leftSums = left.compute();
+		return leftSums.merge(right.compute());
+	}
+
+	private PartialSums computeLeaf()
+	{
+		PartialSums sums = new PartialSums(dataSet, centroids.length);
+		for (int r = from; r < to; r++)
+		{
+			int nearest = bounds != null ?
+					bounds.nearest(r, assignment[r], centroids, sums) :
+					distance.nearest(r, centroids);
+			boolean changed = assignment[r] != nearest;
+			assignment[r] = nearest;
+			sums.add(r, nearest, changed);
+		}
+		return sums;
+	}
+}
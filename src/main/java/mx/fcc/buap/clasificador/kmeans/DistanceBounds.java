@@ -0,0 +1,134 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import java.util.Arrays;
+
+/**
+ * Cotas de distancia del algoritmo de Hamerly. Para cada instancia guarda una cota
+ * superior de la distancia a su centroide y una cota inferior de la distancia a
+ * cualquier otro centroide; para cada centroide guarda cuanto se movio en la ultima
+ * actualizacion y la mitad de la distancia al centroide mas cercano.
+ * <p>
+ * Si la cota superior de una instancia es menor que ambas cotas, ningun otro centroide
+ * puede estar mas cerca y la instancia no se compara con ninguno. Las cotas se comparan
+ * con una tolerancia, de modo que los errores de redondeo y los empates siempre se
+ * resuelven comparando todos los centroides, igual que en el algoritmo de Lloyd.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class DistanceBounds
+{
+	/**
+	 * Margen con el que se comparan las cotas. Las distancias estan escaladas por el
+	 * rango de cada columna, por lo que son del orden de la raiz del numero de columnas.
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	private final SquaredDistance distance;
+	private final double[] upper;
+	private final double[] lower;
+	private final double[] drift;
+	private final double[] halfSeparation;
+	private int farthest = -1;
+	private double maxDrift;
+	private double secondMaxDrift;
+
+	public DistanceBounds(SquaredDistance distance, int rowSize, int k)
+	{
+		this.distance = distance;
+		this.upper = new double[rowSize];
+		this.lower = new double[rowSize];
+		this.drift = new double[k];
+		this.halfSeparation = new double[k];
+	}
+
+	/**
+	 * Registra cuanto se movio cada centroide y recalcula la separacion entre centroides.
+	 * Debe invocarse cada vez que cambian los centroides.
+	 *
+	 * @param previous los centroides antes de la actualizacion
+	 * @param centroids los centroides actualizados
+	 */
+	public void update(double[][] previous, double[][] centroids)
+	{
+		farthest = -1;
+		maxDrift = secondMaxDrift = 0;
+		for (int c = 0; c < centroids.length; c++)
+		{
+			drift[c] = Math.sqrt(distance.between(previous[c], centroids[c]));
+			if (drift[c] > maxDrift)
+			{
+				secondMaxDrift = maxDrift;
+				maxDrift = drift[c];
+				farthest = c;
+			}
+			else if (drift[c] > secondMaxDrift) secondMaxDrift = drift[c];
+		}
+
+		Arrays.fill(halfSeparation, Double.POSITIVE_INFINITY);
+		for (int a = 0; a < centroids.length; a++)
+			for (int b = a + 1; b < centroids.length; b++)
+			{
+				double half = Math.sqrt(distance.between(centroids[a], centroids[b])) / 2;
+				halfSeparation[a] = Math.min(halfSeparation[a], half);
+				halfSeparation[b] = Math.min(halfSeparation[b], half);
+			}
+	}
+
+	/**
+	 * Retorna el indice del centroide mas cercano a la instancia especificada, con el mismo
+	 * resultado que SquaredDistance.nearest, y agrega a las sumas parciales el numero de
+	 * distancias que no fue necesario calcular.
+	 *
+	 * @param row el numero de instancia
+	 * @param current el cluster actual de la instancia, o -1 si aun no tiene
+	 * @param centroids los centroides
+	 * @param sums las sumas parciales donde se cuentan las distancias evitadas
+	 * @return el indice del centroide mas cercano
+	 */
+	public int nearest(int row, int current, double[][] centroids, PartialSums sums)
+	{
+		if (current == -1)
+			return scan(row, centroids);
+
+		upper[row] += drift[current];
+		lower[row] -= current == farthest ? secondMaxDrift : maxDrift;
+		double bound = Math.max(halfSeparation[current], lower[row]) - TOLERANCE;
+		if (upper[row] < bound)
+		{
+			sums.skip(centroids.length);
+			return current;
+		}
+
+		upper[row] = Math.sqrt(distance.between(row, centroids[current]));
+		if (upper[row] < bound)
+		{
+			sums.skip(centroids.length - 1);
+			return current;
+		}
+		return scan(row, centroids);
+	}
+
+	/**
+	 * Compara la instancia con todos los centroides y reinicia sus cotas.
+	 */
+	private int scan(int row, double[][] centroids)
+	{
+		int nearest = 0;
+		double first = Double.POSITIVE_INFINITY, second = Double.POSITIVE_INFINITY;
+		for (int c = 0; c < centroids.length; c++)
+		{
+			double d = distance.between(row, centroids[c]);
+			if (d < first)
+			{
+				second = first;
+				first = d;
+				nearest = c;
+			}
+			else if (d < second) second = d;
+		}
+		upper[row] = Math.sqrt(first);
+		lower[row] = Math.sqrt(second);
+		return nearest;
+	}
+}
@@ -0,0 +1,31 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+/**
+ * Estrategias para escoger los centroides iniciales de k-means.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum Initialization
+{
+	/**
+	 * k instancias distintas escogidas al azar de manera uniforme.
+	 */
+	RANDOM,
+
+	/**
+	 * k-means++ (Arthur y Vassilvitskii, 2007): cada centroide se escoge al azar con
+	 * probabilidad proporcional al cuadrado de su distancia al centroide mas cercano ya
+	 * escogido. Requiere k pasadas sobre las instancias.
+	 */
+	KMEANS_PLUS_PLUS,
+
+	/**
+	 * k-means|| (Bahmani et al., 2012): en unas cuantas pasadas toma muestras de
+	 * aproximadamente 2k candidatos cada una con la misma probabilidad que k-means++, y
+	 * despues escoge los k centroides entre los candidatos con k-means++ ponderado por
+	 * el numero de instancias mas cercanas a cada candidato. Requiere un numero fijo de
+	 * pasadas sin importar k.
+	 */
+	KMEANS_PARALLEL
+}
@@ -0,0 +1,35 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+/**
+ * Variantes del algoritmo k-means.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum KMeansAlgorithm
+{
+	/**
+	 * Algoritmo de Lloyd: en cada iteracion compara cada instancia con todos los centroides.
+	 */
+	LLOYD,
+
+	/**
+	 * Algoritmo de Hamerly: conserva cotas de la distancia de cada instancia a su centroide
+	 * y al segundo centroide mas cercano, y solo compara la instancia con todos los
+	 * centroides cuando las cotas no bastan para saber que no cambia de cluster. Produce
+	 * las mismas asignaciones que LLOYD. Solo el modelo columnar lo implementa; las
+	 * clasificaciones que lo piden se ejecutan con StorageMode.FAST, y se rechazan si
+	 * piden el modelo exacto.
+	 */
+	HAMERLY,
+
+	/**
+	 * K-means por lotes pequeños: actualiza los centroides con muestras aleatorias de
+	 * KMeansOptions.batchSize instancias durante KMeansOptions.batchIterations pasos, y al
+	 * final asigna todas las instancias una sola vez. Es aproximado, pero su costo no
+	 * depende del numero de iteraciones de Lloyd. Solo el modelo columnar lo implementa;
+	 * las clasificaciones que lo piden se ejecutan con StorageMode.FAST, y se rechazan si
+	 * piden el modelo exacto.
+	 */
+	MINI_BATCH
+}
@@ -0,0 +1,46 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+/**
+ * Recibe el avance de una ejecucion de k-means al terminar cada iteracion.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@FunctionalInterface
+public interface KMeansListener
+{
+	/**
+	 * Se invoca despues de asignar las instancias a sus clusters, en el hilo que ejecuta
+	 * k-means.
+	 *
+	 * @param iteration el numero de la iteracion, empezando en 1
+	 * @param inertia la suma de los cuadrados de las distancias de cada instancia al
+	 *                centroide con el que se asigno, o NaN si no se calculo
+	 */
+	void iteration(int iteration, double inertia);
+
+	/**
+	 * Retorna true si la inercia debe calcularse para este listener. Calcularla cuesta una
+	 * pasada adicional sobre las instancias en cada iteracion; si retorna false, el listener
+	 * recibe la inercia solo cuando la calcula minImprovement, y NaN en otro caso.
+	 */
+	default boolean needsInertia() { return true; }
+
+	/**
+	 * Crea un listener que recibe cada iteracion sin pedir que se calcule su inercia.
+	 *
+	 * @param listener el listener que recibe las iteraciones
+	 * @return un listener cuyo needsInertia retorna false
+	 */
+	static KMeansListener withoutInertia(KMeansListener listener)
+	{
+		return new KMeansListener()
+		{
+			@Override
+			public void iteration(int iteration, double inertia) { listener.iteration(iteration, inertia); }
+
+			@Override
+			public boolean needsInertia() { return false; }
+		};
+	}
+}
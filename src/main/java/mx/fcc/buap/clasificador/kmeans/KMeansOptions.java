@@ -0,0 +1,139 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Parametros de una ejecucion de k-means.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Data
+public class KMeansOptions
+{
+	/**
+	 * Pool entre cuyos hilos se reparte la asignacion de instancias, o null para ejecutar
+	 * k-means en el hilo que lo invoca.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Semilla con la que se escogen los centroides iniciales, o null para usar una
+	 * semilla distinta en cada ejecucion.
+	 */
+	private Long seed;
+
+	/**
+	 * Estrategia con la que se escogen los centroides iniciales cuando no se especifican.
+	 */
+	private Initialization initialization = Initialization.KMEANS_PLUS_PLUS;
+
+	/**
+	 * Variante de k-means a ejecutar.
+	 */
+	private KMeansAlgorithm algorithm = KMeansAlgorithm.LLOYD;
+
+	/**
+	 * Numero de instancias de cada muestra de KMeansAlgorithm.MINI_BATCH.
+	 */
+	private int batchSize = 1024;
+
+	/**
+	 * Numero de muestras de KMeansAlgorithm.MINI_BATCH.
+	 */
+	private int batchIterations = 100;
+
+	/**
+	 * Numero maximo de iteraciones de Lloyd o Hamerly, o 0 para no limitarlas.
+	 */
+	private int maxIterations = 300;
+
+	/**
+	 * La ejecucion se detiene cuando ningun centroide se mueve, al recalcularlo, mas que
+	 * esta distancia, medida igual que la distancia entre instancias. Con 0 se detiene
+	 * solo cuando los centroides no cambian.
+	 */
+	private double tolerance;
+
+	/**
+	 * La ejecucion se detiene cuando la inercia mejora, relativamente a la iteracion
+	 * anterior, menos que esta fraccion; 0 desactiva el criterio.
+	 */
+	private double minImprovement;
+
+	/**
+	 * Tiempo maximo de las iteraciones, sin contar la eleccion de los centroides
+	 * iniciales, o null para no limitarlo. Al agotarse se conserva la ultima asignacion.
+	 */
+	private Duration timeBudget;
+
+	/**
+	 * Numero de ejecuciones independientes, con centroides iniciales distintos, de las que
+	 * se conserva la de menor inercia. Las ejecuciones se reparten entre los hilos del
+	 * pool, y cada una asigna sus instancias en un solo hilo.
+	 */
+	private int restarts = 1;
+
+	/**
+	 * Recibe el numero de iteracion y la inercia despues de cada asignacion, o null si no
+	 * se reporta el avance. Calcular la inercia cuesta una distancia adicional por
+	 * instancia, por lo que solo se calcula si el listener la necesita o si hay un
+	 * minImprovement.
+	 */
+	private KMeansListener listener;
+
+	public boolean isParallel() { return pool != null; }
+
+	/**
+	 * Reporta al listener, si existe, el avance de la iteracion especificada.
+	 *
+	 * @param iteration el numero de la iteracion, empezando en 1
+	 * @param inertia calcula la inercia de la iteracion
+	 */
+	public void report(int iteration, DoubleSupplier inertia)
+	{
+		if (listener != null)
+			listener.iteration(iteration, listener.needsInertia() ? inertia.getAsDouble() : Double.NaN);
+	}
+
+	/**
+	 * Crea los criterios de paro de una ejecucion que inicia en este momento.
+	 */
+	public StoppingCriteria createStoppingCriteria() { return new StoppingCriteria(this); }
+
+	/**
+	 * Crea el generador de numeros aleatorios de esta ejecucion a partir de la semilla.
+	 *
+	 * @return un generador nuevo
+	 */
+	public Random createRandom() { return seed == null ? new Random() : new Random(seed); }
+
+	/**
+	 * Crea las opciones de una de las ejecuciones de restarts: una sola ejecucion, en el
+	 * hilo que la invoca, con la semilla especificada.
+	 *
+	 * @param seed la semilla de la ejecucion
+	 * @param listener el listener de la ejecucion, o null
+	 * @return una copia de estas opciones
+	 */
+	public KMeansOptions forRestart(long seed, KMeansListener listener)
+	{
+		KMeansOptions copy = new KMeansOptions();
+		copy.seed = seed;
+		copy.initialization = initialization;
+		copy.algorithm = algorithm;
+		copy.batchSize = batchSize;
+		copy.batchIterations = batchIterations;
+		copy.maxIterations = maxIterations;
+		copy.tolerance = tolerance;
+		copy.minImprovement = minImprovement;
+		copy.timeBudget = timeBudget;
+		copy.listener = listener;
+		return copy;
+	}
+}
@@ -0,0 +1,266 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.Row;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Ejecuta k-means sobre el mismo DataTable para cada k de un rango, y reporta la inercia
+ * y el coeficiente de silueta de cada uno para ayudar a escoger k.
+ * <p>
+ * Cada k inicia con los centroides finales del k anterior mas la instancia mas lejana a
+ * su centroide, por lo que converge en pocas iteraciones; por lo mismo, las ejecuciones
+ * son secuenciales y cada una reparte la asignacion entre los hilos del pool de
+ * KMeansOptions. La silueta se calcula sobre una muestra fija de instancias cuyas
+ * distancias se calculan una sola vez, en paralelo, y se reutilizan para todos los k.
+ * <p>
+ * Se reportan dos sugerencias: el codo de la curva de inercia, el punto mas alejado de la
+ * recta entre el primer y el ultimo k, y el k de mayor silueta, cuya clasificacion se
+ * conserva.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Log4j2
+@Getter
+public final class KSweep
+{
+	/**
+	 * Tamaño maximo de la muestra de la silueta. La matriz de distancias de la muestra
+	 * tiene n(n-1)/2 valores, unos 400 MB con 10000 instancias.
+	 */
+	public static final int MAX_SAMPLE = 10_000;
+
+	private final List<SweepPoint> points;
+	private final int elbow;
+	private final int best;
+	private final Clustering clustering;
+
+	private KSweep(List<SweepPoint> points, int elbow, int best, Clustering clustering)
+	{
+		this.points = Collections.unmodifiableList(points);
+		this.elbow = elbow;
+		this.best = best;
+		this.clustering = clustering;
+	}
+
+	/**
+	 * Ejecuta el barrido. Se detiene antes de maxK si ya no hay instancias distintas de los
+	 * centroides con las cuales iniciar un cluster nuevo.
+	 *
+	 * @param table el DataTable normalizado
+	 * @param minK el primer k, al menos 2
+	 * @param maxK el ultimo k
+	 * @param options las opciones de cada ejecucion; restarts solo se aplica al primer k
+	 * @param sampleSize el numero de instancias con las que se calcula la silueta, como
+	 *                   maximo MAX_SAMPLE
+	 * @return el resultado del barrido
+	 * @throws IllegalArgumentException si el rango o el tamaño de la muestra no son validos
+	 */
+	public static KSweep run(DataTable table, int minK, int maxK, KMeansOptions options, int sampleSize)
+	{
+		if (minK < 2 || maxK < minK)
+			throw new IllegalArgumentException("Rango de k invalido: " + minK + " a " + maxK);
+		if (sampleSize < 2 || sampleSize > MAX_SAMPLE)
+			throw new IllegalArgumentException("Tamaño de muestra invalido: " + sampleSize);
+
+		List<Clustering> runs = new ArrayList<>();
+		Clustering clusters = table.kMeans(minK, options);
+		runs.add(clusters);
+		for (int k = minK + 1; k <= maxK && k <= table.getRowSize(); k++)
+		{
+			Set<Row> centroids = warmStart(clusters, table.getRowSize());
+			if (centroids.size() < k) break;
+			clusters = table.kMeans(centroids, options);
+			runs.add(clusters);
+		}
+
+		int[] sample = sample(table.getRowSize(), sampleSize, options.getSeed());
+		double[] distances = distances(table, sample, options);
+		double[] silhouette = new double[runs.size()];
+		IntStream.range(0, runs.size()).parallel()
+				.forEach(i -> silhouette[i] = silhouette(runs.get(i), sample, distances));
+
+		List<SweepPoint> points = new ArrayList<>();
+		int best = 0;
+		for (int i = 0; i < runs.size(); i++)
+		{
+			Clustering run = runs.get(i);
+			points.add(new SweepPoint(run.size(), run.getInertia(), silhouette[i], run.getIterations(), run.getStopReason()));
+			if (silhouette[i] > silhouette[best]) best = i;
+		}
+		int elbow = elbow(points);
+		log.info("Barrido de k: codo en k={}, mayor silueta en k={}", elbow, points.get(best).getK());
+		return new KSweep(points, elbow, points.get(best).getK(), runs.get(best));
+	}
+
+	/**
+	 * Retorna los centroides de la clasificacion mas la instancia mas lejana a su
+	 * centroide.
+	 */
+	private static Set<Row> warmStart(Clustering clusters, int rowSize)
+	{
+		Set<Row> centroids = new LinkedHashSet<>();
+		for (int c = 0; c < clusters.size(); c++)
+			centroids.add(toRow(clusters.getCentroidValues(c)));
+
+		int farthest = -1;
+		double max = -1;
+		for (int row = 0; row < rowSize; row++)
+		{
+			if (clusters.getCluster(row) == -1) continue;
+			double d = clusters.squaredDistanceToCentroid(row);
+			if (d > max)
+			{
+				max = d;
+				farthest = row;
+			}
+		}
+		if (farthest == -1) return centroids;
+
+		int target = farthest;
+		try
+		{
+			clusters.forEachAssignment((row, cluster, values) -> {
+				if (row == target) centroids.add(toRow(values));
+			});
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return centroids;
+	}
+
+	private static Row toRow(Number[] values)
+	{
+		BigDecimal[] attributes = new BigDecimal[values.length];
+		for (int i = 0; i < values.length; i++)
+			attributes[i] = values[i] instanceof BigDecimal ? (BigDecimal) values[i] :
+					values[i] instanceof Integer ? BigDecimal.valueOf(values[i].intValue()) :
+							BigDecimal.valueOf(values[i].doubleValue());
+		return new Row(attributes);
+	}
+
+	/**
+	 * Escoge sin repeticion hasta size instancias, con una semilla fija para que la silueta
+	 * de todos los k se calcule sobre las mismas instancias.
+	 */
+	static int[] sample(int rowSize, int size, Long seed)
+	{
+		int[] rows = IntStream.range(0, rowSize).toArray();
+		if (size >= rowSize) return rows;
+		Random random = seed == null ? new Random(0) : new Random(seed);
+		for (int i = 0; i < size; i++)
+		{
+			int j = i + random.nextInt(rowSize - i);
+			int t = rows[i];
+			rows[i] = rows[j];
+			rows[j] = t;
+		}
+		int[] sample = new int[size];
+		System.arraycopy(rows, 0, sample, 0, size);
+		return sample;
+	}
+
+	/**
+	 * Calcula las distancias entre cada par de instancias de la muestra, en la mitad
+	 * superior de una matriz guardada por renglones.
+	 */
+	private static double[] distances(DataTable table, int[] sample, KMeansOptions options)
+	{
+		int n = sample.length;
+		double[] distances = new double[Math.toIntExact((long) n * (n - 1) / 2)];
+		Runnable fill = () -> IntStream.range(0, n).parallel().forEach(i -> {
+			int offset = offset(i, n);
+			for (int j = i + 1; j < n; j++)
+				distances[offset + j - i - 1] = table.distance(sample[i], sample[j]);
+		});
+		if (options.getPool() == null) fill.run();
+		else options.getPool().submit(fill).join();
+		return distances;
+	}
+
+	private static int offset(int i, int n) { return (int) ((long) i * (2 * n - i - 1) / 2); }
+
+	/**
+	 * Calcula el coeficiente de silueta promedio de la muestra. Las instancias que son las
+	 * unicas de su cluster en la muestra tienen silueta 0.
+	 */
+	static double silhouette(Clustering clusters, int[] sample, double[] distances)
+	{
+		int n = sample.length;
+		int k = clusters.size();
+		int[] cluster = new int[n];
+		int[] count = new int[k];
+		for (int i = 0; i < n; i++)
+		{
+			cluster[i] = clusters.getCluster(sample[i]);
+			if (cluster[i] != -1) count[cluster[i]]++;
+		}
+
+		double total = 0;
+		int counted = 0;
+		double[] sum = new double[k];
+		for (int i = 0; i < n; i++)
+		{
+			if (cluster[i] == -1) continue;
+			counted++;
+			if (count[cluster[i]] == 1) continue;
+			Arrays.fill(sum, 0);
+			for (int j = 0; j < n; j++)
+				if (j != i && cluster[j] != -1)
+					sum[cluster[j]] += i < j ? distances[offset(i, n) + j - i - 1] : distances[offset(j, n) + i - j - 1];
+
+			double a = sum[cluster[i]] / (count[cluster[i]] - 1);
+			double b = Double.MAX_VALUE;
+			for (int c = 0; c < k; c++)
+				if (c != cluster[i] && count[c] > 0) b = Math.min(b, sum[c] / count[c]);
+			if (b == Double.MAX_VALUE) continue;
+			double max = Math.max(a, b);
+			if (max > 0) total += (b - a) / max;
+		}
+		return counted == 0 ? 0 : total / counted;
+	}
+
+	/**
+	 * Retorna el k cuyo punto de la curva de inercia esta mas alejado, por debajo, de la
+	 * recta entre el primer y el ultimo punto, con ambos ejes escalados a [0, 1].
+	 */
+	static int elbow(List<SweepPoint> points)
+	{
+		SweepPoint first = points.get(0);
+		SweepPoint last = points.get(points.size() - 1);
+		double dk = last.getK() - first.getK();
+		double di = first.getInertia() - last.getInertia();
+		if (points.size() < 3 || dk == 0 || di <= 0) return first.getK();
+
+		int elbow = first.getK();
+		double max = 0;
+		for (SweepPoint point : points)
+		{
+			double x = (point.getK() - first.getK()) / dk;
+			double y = (first.getInertia() - point.getInertia()) / di;
+			if (y - x > max)
+			{
+				max = y - x;
+				elbow = point.getK();
+			}
+		}
+		return elbow;
+	}
+}
@@ -0,0 +1,87 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+
+import java.util.Random;
+
+/**
+ * K-means por lotes pequeños (Sculley, 2010). En cada paso toma una muestra aleatoria de
+ * instancias, busca el centroide mas cercano a cada una y mueve ese centroide hacia la
+ * instancia con una tasa de aprendizaje igual al inverso del numero de instancias que
+ * ha recibido, de modo que cada centroide es el promedio de las instancias que ha visto.
+ * En las columnas nominales el centroide es la moda de las categorias que ha visto.
+ * <p>
+ * Cada paso cuesta O(batchSize × k × columnas) sin importar el tamaño del conjunto de datos.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class MiniBatch
+{
+	private final ColumnarDataSet dataSet;
+	private final SquaredDistance distance;
+	private final double[][] centroids;
+	private final int[] seen;
+	private final int[][][] frequencies;
+
+	public MiniBatch(ColumnarDataSet dataSet, SquaredDistance distance, double[][] centroids)
+	{
+		int columnSize = dataSet.getColumnSize();
+		this.dataSet = dataSet;
+		this.distance = distance;
+		this.centroids = centroids;
+		this.seen = new int[centroids.length];
+		this.frequencies = new int[centroids.length][columnSize][];
+		for (int c = 0; c < centroids.length; c++)
+			for (int i = 0; i < columnSize; i++)
+				if (dataSet.isNominal(i))
+					frequencies[c][i] = new int[dataSet.getCardinality(i)];
+	}
+
+	/**
+	 * Ejecuta el numero de pasos especificado, actualizando los centroides.
+	 *
+	 * @param batchSize el numero de instancias de cada muestra
+	 * @param iterations el numero de pasos
+	 * @param random el generador con el que se toman las muestras
+	 */
+	public void run(int batchSize, int iterations, Random random)
+	{
+		int rowSize = dataSet.getRowSize();
+		if (rowSize == 0 || centroids.length == 0) return;
+
+		int[] batch = new int[Math.min(batchSize, rowSize)];
+		int[] nearest = new int[batch.length];
+		for (int t = 0; t < iterations; t++)
+		{
+			for (int b = 0; b < batch.length; b++)
+			{
+				batch[b] = random.nextInt(rowSize);
+				nearest[b] = distance.nearest(batch[b], centroids);
+			}
+			for (int b = 0; b < batch.length; b++)
+				update(batch[b], nearest[b]);
+		}
+	}
+
+	private void update(int row, int cluster)
+	{
+		double[] centroid = centroids[cluster];
+		double rate = 1.0 / ++seen[cluster];
+		for (int i = 0; i < centroid.length; i++)
+		{
+			int[] frequency = frequencies[cluster][i];
+			if (frequency == null)
+				centroid[i] += (dataSet.getNumericalColumn(i).get(row) - centroid[i]) * rate;
+			else
+			{
+				int code = dataSet.getNominalColumn(i).get(row);
+				// el centroide inicial puede tener una categoria que no aparece en los datos
+				int mode = (int) centroid[i];
+				int modeFrequency = mode < frequency.length ? frequency[mode] : 0;
+				if (++frequency[code] > modeFrequency || frequency[code] == modeFrequency && code < mode)
+					centroid[i] = code;
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import lombok.Getter;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+
+/**
+ * Sumas parciales por cluster de un subconjunto de instancias de un ColumnarDataSet: la
+ * suma de cada columna numerica, la frecuencia de cada categoria de las columnas
+ * nominales y el numero de instancias. Las sumas de dos subconjuntos se combinan con
+ * merge, y a partir del total se obtienen los centroides nuevos.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class PartialSums
+{
+	private final ColumnarDataSet dataSet;
+	private final double[][] sums;
+	private final int[][][] frequencies;
+	@Getter private final int[] counts;
+	@Getter private int moved;
+	@Getter private long skipped;
+
+	public PartialSums(ColumnarDataSet dataSet, int k)
+	{
+		int columnSize = dataSet.getColumnSize();
+		this.dataSet = dataSet;
+		this.sums = new double[k][columnSize];
+		this.frequencies = new int[k][columnSize][];
+		this.counts = new int[k];
+		for (int c = 0; c < k; c++)
+			for (int i = 0; i < columnSize; i++)
+				if (dataSet.isNominal(i))
+					frequencies[c][i] = new int[dataSet.getCardinality(i)];
+	}
+
+	/**
+	 * Agrega una instancia a las sumas del cluster especificado.
+	 *
+	 * @param row el numero de instancia
+	 * @param cluster el indice del cluster
+	 * @param changed si la instancia cambio de cluster en esta iteracion
+	 */
+	public void add(int row, int cluster, boolean changed)
+	{
+		double[] sum = sums[cluster];
+		int[][] frequency = frequencies[cluster];
+		for (int i = 0; i < sum.length; i++)
+		{
+			if (frequency[i] != null) frequency[i][dataSet.getNominalColumn(i).get(row)]++;
+			else sum[i] += dataSet.getNumericalColumn(i).get(row);
+		}
+		counts[cluster]++;
+		if (changed) moved++;
+	}
+
+	/**
+	 * Cuenta distancias entre instancias y centroides que no fue necesario calcular.
+	 *
+	 * @param distances el numero de distancias evitadas
+	 */
+	public void skip(int distances)
+	{
+		skipped += distances;
+	}
+
+	/**
+	 * Suma a estas sumas parciales las de otro subconjunto de instancias.
+	 *
+	 * @param other las sumas parciales del otro subconjunto
+	 * @return estas sumas parciales
+	 */
+	public PartialSums merge(PartialSums other)
+	{
+		for (int c = 0; c < counts.length; c++)
+		{
+			for (int i = 0; i < sums[c].length; i++)
+			{
+				if (frequencies[c][i] != null)
+					for (int code = 0; code < frequencies[c][i].length; code++)
+						frequencies[c][i][code] += other.frequencies[c][i][code];
+				else sums[c][i] += other.sums[c][i];
+			}
+			counts[c] += other.counts[c];
+		}
+		moved += other.moved;
+		skipped += other.skipped;
+		return this;
+	}
+
+	/**
+	 * Asigna a cada centroide el promedio de las instancias de su cluster; en las columnas
+	 * nominales asigna la moda, y en caso de empate el codigo menor. Los centroides de los
+	 * clusters vacios no cambian.
+	 *
+	 * @param centroids los centroides a actualizar
+	 */
+	public void updateCentroids(double[][] centroids)
+	{
+		for (int c = 0; c < centroids.length; c++)
+		{
+			if (counts[c] == 0) continue;
+			for (int i = 0; i < sums[c].length; i++)
+				centroids[c][i] = frequencies[c][i] != null ? mode(frequencies[c][i]) :
+						sums[c][i] / counts[c];
+		}
+	}
+
+	private static int mode(int[] frequency)
+	{
+		int mode = 0;
+		for (int code = 1; code < frequency.length; code++)
+			if (frequency[code] > frequency[mode]) mode = code;
+		return mode;
+	}
+}
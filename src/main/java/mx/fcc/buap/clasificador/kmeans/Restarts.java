@@ -0,0 +1,59 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.domain.Clustering;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Ejecuta k-means varias veces sobre el mismo DataTable, con centroides iniciales
+ * distintos, y conserva la clasificacion de menor inercia. Las ejecuciones solo leen el
+ * DataTable, por lo que se reparten entre los hilos del pool de KMeansOptions sin
+ * copiarlo; sin pool se ejecutan una tras otra en el hilo actual.
+ * <p>
+ * La semilla de cada ejecucion se obtiene de KMeansOptions.seed, por lo que el resultado
+ * es reproducible. Solo la primera ejecucion reporta su avance al listener.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Log4j2
+public final class Restarts
+{
+	private Restarts() {}
+
+	/**
+	 * @param options las opciones, con restarts mayor a 1
+	 * @param run ejecuta k-means con las opciones de una sola ejecucion
+	 * @return la clasificacion de menor inercia; en caso de empate, la de la primera ejecucion
+	 */
+	public static <C extends Clustering> C best(KMeansOptions options, Function<KMeansOptions, C> run)
+	{
+		Random random = options.createRandom();
+		long[] seeds = new long[options.getRestarts()];
+		for (int i = 0; i < seeds.length; i++)
+			seeds[i] = random.nextLong();
+
+		IntStream restarts = IntStream.range(0, seeds.length);
+		Function<Integer, C> restart = i -> run.apply(options.forRestart(seeds[i], i == 0 ? options.getListener() : null));
+		Object[] results = options.getPool() == null ?
+				restarts.boxed().map(restart).toArray() :
+				options.getPool().submit(() -> restarts.parallel().boxed().map(restart).toArray()).join();
+
+		double[] inertia = new double[results.length];
+		int best = 0;
+		for (int i = 0; i < results.length; i++)
+		{
+			inertia[i] = ((Clustering) results[i]).getInertia();
+			if (inertia[i] < inertia[best]) best = i;
+		}
+		log.debug("Inercia de cada ejecucion: {}", Arrays.toString(inertia));
+
+		@SuppressWarnings("unchecked")
+		C result = (C) results[best];
+		return result;
+	}
+}
@@ -0,0 +1,203 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Escoge los centroides iniciales de k-means con k-means++ o k-means||. Trabaja con
+ * indices de instancias y una funcion de distancia, por lo que sirve para los dos
+ * modelos de almacenamiento.
+ * <p>
+ * Las distancias se calculan en el pool especificado, pero todos los numeros aleatorios
+ * se toman en el hilo actual y en el mismo orden, de modo que con la misma semilla el
+ * resultado es el mismo con o sin pool.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class Seeding
+{
+	/**
+	 * Numero de pasadas de muestreo de k-means||.
+	 */
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Cuadrado de la distancia entre dos instancias.
+	 */
+	@FunctionalInterface
+	public interface RowDistance
+	{
+		double between(int a, int b);
+	}
+
+	private Seeding() {}
+
+	/**
+	 * Escoge los indices de los centroides iniciales con la estrategia especificada.
+	 *
+	 * @param initialization la estrategia
+	 * @param n el numero de instancias
+	 * @param k el numero de centroides
+	 * @param distance el cuadrado de la distancia entre dos instancias
+	 * @param random el generador de numeros aleatorios
+	 * @param pool el pool en el que se calculan las distancias, o null para usar el hilo actual
+	 * @return k indices distintos, o un arreglo vacio si hay menos de k instancias
+	 */
+	public static int[] choose(Initialization initialization, int n, int k,
+	                           RowDistance distance, Random random, ForkJoinPool pool)
+	{
+		if (n < k) return new int[0];
+		switch (initialization)
+		{
+			case KMEANS_PLUS_PLUS: return kMeansPlusPlus(n, k, distance, random, pool);
+			case KMEANS_PARALLEL: return kMeansParallel(n, k, distance, random, pool);
+			default: return random.ints(0, n).distinct().limit(k).toArray();
+		}
+	}
+
+	public static int[] kMeansPlusPlus(int n, int k, RowDistance distance, Random random, ForkJoinPool pool)
+	{
+		return weightedPlusPlus(n, k, null, distance, random, pool);
+	}
+
+	public static int[] kMeansParallel(int n, int k, RowDistance distance, Random random, ForkJoinPool pool)
+	{
+		double[] minDistance = new double[n];
+		int[] owner = new int[n];
+		Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+
+		List<Integer> candidates = new ArrayList<>();
+		candidates.add(random.nextInt(n));
+		closest(n, candidates, 0, minDistance, owner, distance, pool);
+
+		double oversampling = 2.0 * k;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			double cost = 0;
+			for (double d : minDistance) cost += d;
+			if (cost == 0) break;
+
+			int from = candidates.size();
+			for (int i = 0; i < n; i++)
+				if (random.nextDouble() < oversampling * minDistance[i] / cost)
+					candidates.add(i);
+			closest(n, candidates, from, minDistance, owner, distance, pool);
+		}
+		if (candidates.size() < k)
+			return kMeansPlusPlus(n, k, distance, random, pool);
+
+		double[] weights = new double[candidates.size()];
+		for (int i = 0; i < n; i++) weights[owner[i]]++;
+
+		int[] chosen = weightedPlusPlus(candidates.size(), k, weights,
+				(a, b) -> distance.between(candidates.get(a), candidates.get(b)), random, null);
+		for (int c = 0; c < chosen.length; c++)
+			chosen[c] = candidates.get(chosen[c]);
+		return chosen;
+	}
+
+	/**
+	 * Actualiza la distancia de cada instancia a su candidato mas cercano con los
+	 * candidatos a partir de la posicion from.
+	 */
+	private static void closest(int n, List<Integer> candidates, int from, double[] minDistance,
+	                            int[] owner, RowDistance distance, ForkJoinPool pool)
+	{
+		int to = candidates.size();
+		forEach(n, i -> {
+			for (int c = from; c < to; c++)
+			{
+				double d = distance.between(i, candidates.get(c));
+				if (d < minDistance[i])
+				{
+					minDistance[i] = d;
+					owner[i] = c;
+				}
+			}
+		}, pool);
+	}
+
+	/**
+	 * k-means++ en el que la probabilidad de cada instancia se multiplica por su peso.
+	 *
+	 * @param weights el peso de cada instancia, o null si todas pesan lo mismo
+	 */
+	private static int[] weightedPlusPlus(int n, int k, double[] weights, RowDistance distance,
+	                                      Random random, ForkJoinPool pool)
+	{
+		int[] chosen = new int[k];
+		boolean[] taken = new boolean[n];
+		double[] minDistance = new double[n];
+		Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+
+		for (int c = 0; c < k; c++)
+		{
+			int next = c == 0 ?
+					sample(n, i -> weights == null ? 1 : weights[i], random) :
+					sample(n, i -> minDistance[i] * (weights == null ? 1 : weights[i]), random);
+			if (next == -1 || taken[next])
+				next = anyUntaken(taken, random);
+			chosen[c] = next;
+			taken[next] = true;
+
+			int center = next;
+			forEach(n, i -> minDistance[i] = Math.min(minDistance[i], distance.between(i, center)), pool);
+		}
+		return chosen;
+	}
+
+	/**
+	 * Escoge un indice al azar con probabilidad proporcional a su peso.
+	 *
+	 * @return el indice escogido, o -1 si todos los pesos son cero
+	 */
+	private static int sample(int n, Weight weight, Random random)
+	{
+		double total = 0;
+		for (int i = 0; i < n; i++) total += weight.of(i);
+		if (total <= 0) return -1;
+
+		double target = random.nextDouble() * total;
+		int last = -1;
+		for (int i = 0; i < n; i++)
+		{
+			double w = weight.of(i);
+			if (w <= 0) continue;
+			last = i;
+			target -= w;
+			if (target < 0) return i;
+		}
+		return last;
+	}
+
+	private static int anyUntaken(boolean[] taken, Random random)
+	{
+		int start = random.nextInt(taken.length);
+		for (int i = 0; i < taken.length; i++)
+		{
+			int index = (start + i) % taken.length;
+			if (!taken[index]) return index;
+		}
+		throw new IllegalStateException("No quedan instancias por escoger");
+	}
+
+	private static void forEach(int n, IntConsumer action, ForkJoinPool pool)
+	{
+		if (pool == null)
+			for (int i = 0; i < n; i++) action.accept(i);
+		else
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(action)).join();
+	}
+
+	@FunctionalInterface
+	private interface Weight
+	{
+		double of(int i);
+	}
+}
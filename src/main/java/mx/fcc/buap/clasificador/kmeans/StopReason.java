@@ -0,0 +1,36 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+/**
+ * Criterio que detuvo una ejecucion de k-means.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum StopReason
+{
+	/**
+	 * Ninguna instancia cambio de cluster, o ningun centroide cambio.
+	 */
+	CONVERGED,
+
+	/**
+	 * Se alcanzo KMeansOptions.maxIterations; en KMeansAlgorithm.MINI_BATCH, se
+	 * procesaron KMeansOptions.batchIterations muestras.
+	 */
+	MAX_ITERATIONS,
+
+	/**
+	 * Ningun centroide se movio mas de KMeansOptions.tolerance.
+	 */
+	TOLERANCE,
+
+	/**
+	 * La inercia mejoro, relativamente, menos de KMeansOptions.minImprovement.
+	 */
+	INERTIA,
+
+	/**
+	 * Se agoto KMeansOptions.timeBudget.
+	 */
+	TIME_BUDGET
+}
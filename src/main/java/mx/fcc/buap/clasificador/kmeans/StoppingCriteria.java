@@ -0,0 +1,72 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Aplica los criterios de paro de KMeansOptions a una ejecucion de k-means. Se crea al
+ * iniciar la ejecucion, que es cuando empieza a correr el tiempo de timeBudget, y se
+ * consulta en cada iteracion despues de asignar las instancias y despues de recalcular
+ * los centroides.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class StoppingCriteria
+{
+	private final KMeansOptions options;
+	private final long deadline;
+	private double previousInertia = Double.NaN;
+
+	public StoppingCriteria(KMeansOptions options)
+	{
+		this.options = options;
+		this.deadline = options.getTimeBudget() == null ? Long.MAX_VALUE :
+				System.nanoTime() + options.getTimeBudget().toNanos();
+	}
+
+	/**
+	 * Reporta la iteracion al listener y revisa los criterios que no dependen de los
+	 * centroides nuevos. La inercia solo se calcula si hay un minImprovement o si el
+	 * listener la necesita; en otro caso el listener recibe NaN.
+	 *
+	 * @param iteration el numero de la iteracion, empezando en 1
+	 * @param moved si alguna instancia cambio de cluster
+	 * @param inertia calcula la inercia de la asignacion
+	 * @return el criterio que detiene la ejecucion, o null para continuar
+	 */
+	public StopReason afterAssignment(int iteration, boolean moved, DoubleSupplier inertia)
+	{
+		KMeansListener listener = options.getListener();
+		boolean minImprovement = options.getMinImprovement() > 0;
+		double current = minImprovement || listener != null && listener.needsInertia() ?
+				inertia.getAsDouble() : Double.NaN;
+		if (listener != null)
+			listener.iteration(iteration, current);
+		if (minImprovement)
+		{
+			double previous = previousInertia;
+			previousInertia = current;
+			if (moved && previous > 0 && (previous - current) / previous < options.getMinImprovement())
+				return StopReason.INERTIA;
+		}
+		if (!moved)
+			return StopReason.CONVERGED;
+		if (options.getMaxIterations() > 0 && iteration >= options.getMaxIterations())
+			return StopReason.MAX_ITERATIONS;
+		if (System.nanoTime() - deadline >= 0)
+			return StopReason.TIME_BUDGET;
+		return null;
+	}
+
+	/**
+	 * Revisa si los centroides no cambiaron o se movieron menos que la tolerancia.
+	 *
+	 * @param shift la mayor distancia que se movio un centroide al recalcularlo
+	 * @return el criterio que detiene la ejecucion, o null para continuar
+	 */
+	public StopReason afterUpdate(double shift)
+	{
+		if (shift == 0) return StopReason.CONVERGED;
+		return shift <= options.getTolerance() ? StopReason.TOLERANCE : null;
+	}
+}
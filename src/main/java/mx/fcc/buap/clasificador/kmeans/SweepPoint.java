@@ -0,0 +1,27 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de k-means para uno de los valores de k de KSweep.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Data
+@AllArgsConstructor
+public class SweepPoint
+{
+	private final int k;
+	private final double inertia;
+
+	/**
+	 * Coeficiente de silueta promedio de la muestra, entre -1 y 1; mas alto indica clusters
+	 * mejor separados.
+	 */
+	private final double silhouette;
+
+	private final int iterations;
+	private final StopReason stopReason;
+}
@@ -0,0 +1,105 @@
+package mx.fcc.buap.clasificador.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import mx.fcc.buap.clasificador.domain.Clustering;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * Escribe el resultado de una clasificacion directamente en un OutputStream, instancia
+ * por instancia, sin construir antes el documento en memoria.
+ * <p>
+ * En formato NDJSON cada linea es un objeto: primero uno por cluster con su centroide
+ * ({"cluster":0,"size":10,"centroid":[...]}) y despues uno por instancia
+ * ({"row":0,"cluster":0,"values":[...]}). En formato JSON se escribe un solo objeto con
+ * los arreglos "centroids" y "rows", con los mismos elementos.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class ClusteringJsonWriter
+{
+	private static final JsonFactory factory = new JsonFactory()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	private ClusteringJsonWriter() {}
+
+	/**
+	 * Escribe la clasificacion en formato NDJSON.
+	 *
+	 * @param clusters la clasificacion
+	 * @param out el stream destino; no se cierra
+	 * @throws IOException si ocurre un error al escribir
+	 */
+	public static void writeNdjson(Clustering clusters, OutputStream out) throws IOException
+	{
+		try (JsonGenerator json = factory.createGenerator(out, JsonEncoding.UTF8))
+		{
+			json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+			for (int c = 0; c < clusters.size(); c++)
+				writeCentroid(json, clusters, c);
+			clusters.forEachAssignment((row, cluster, values) -> writeRow(json, row, cluster, values));
+			json.writeRaw('\n');
+		}
+	}
+
+	/**
+	 * Escribe la clasificacion como un solo documento JSON.
+	 *
+	 * @param clusters la clasificacion
+	 * @param out el stream destino; no se cierra
+	 * @throws IOException si ocurre un error al escribir
+	 */
+	public static void writeJson(Clustering clusters, OutputStream out) throws IOException
+	{
+		try (JsonGenerator json = factory.createGenerator(out, JsonEncoding.UTF8))
+		{
+			json.writeStartObject();
+			json.writeArrayFieldStart("centroids");
+			for (int c = 0; c < clusters.size(); c++)
+				writeCentroid(json, clusters, c);
+			json.writeEndArray();
+			json.writeArrayFieldStart("rows");
+			clusters.forEachAssignment((row, cluster, values) -> writeRow(json, row, cluster, values));
+			json.writeEndArray();
+			json.writeEndObject();
+		}
+	}
+
+	private static void writeCentroid(JsonGenerator json, Clustering clusters, int cluster) throws IOException
+	{
+		json.writeStartObject();
+		json.writeNumberField("cluster", cluster);
+		json.writeNumberField("size", clusters.getClusterSize(cluster));
+		json.writeFieldName("centroid");
+		writeValues(json, clusters.getCentroidValues(cluster));
+		json.writeEndObject();
+	}
+
+	private static void writeRow(JsonGenerator json, int row, int cluster, Number[] values) throws IOException
+	{
+		json.writeStartObject();
+		json.writeNumberField("row", row);
+		json.writeNumberField("cluster", cluster);
+		json.writeFieldName("values");
+		writeValues(json, values);
+		json.writeEndObject();
+	}
+
+	private static void writeValues(JsonGenerator json, Number[] values) throws IOException
+	{
+		json.writeStartArray();
+		for (Number value : values)
+		{
+			if (value instanceof BigDecimal) json.writeNumber((BigDecimal) value);
+			else if (value instanceof Integer) json.writeNumber(value.intValue());
+			else json.writeNumber(value.doubleValue());
+		}
+		json.writeEndArray();
+	}
+}
@@ -0,0 +1,58 @@
+package mx.fcc.buap.clasificador.service;
+
+import mx.fcc.buap.clasificador.domain.Clustering;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Escribe el archivo de resultado de una clasificacion directamente en un Writer,
+ * instancia por instancia, sin construir antes el reporte completo en memoria.
+ * <p>
+ * En formato CSV la primera linea es el encabezado row,cluster,c0,c1,... y cada linea
+ * siguiente es una instancia, en el orden del DataTable, con los mismos numeros de
+ * instancia y de cluster que ClusteringJsonWriter.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class ClusteringReportWriter
+{
+	private ClusteringReportWriter() {}
+
+	/**
+	 * Escribe la clasificacion en el formato especificado.
+	 *
+	 * @param clusters la clasificacion
+	 * @param format el formato del reporte
+	 * @param out el destino; no se cierra
+	 * @throws IOException si ocurre un error al escribir
+	 */
+	public static void write(Clustering clusters, ReportFormat format, Writer out) throws IOException
+	{
+		if (format == ReportFormat.CSV) writeCsv(clusters, out);
+		else clusters.appendTo(out, Integer.MAX_VALUE);
+	}
+
+	private static void writeCsv(Clustering clusters, Writer out) throws IOException
+	{
+		int columns = clusters.size() > 0 ? clusters.getCentroidValues(0).length : 0;
+		out.write("row,cluster");
+		for (int i = 0; i < columns; i++)
+			out.append(",c").append(String.valueOf(i));
+		out.write('\n');
+
+		clusters.forEachAssignment((row, cluster, values) -> {
+			out.write(String.valueOf(row));
+			out.write(',');
+			out.write(String.valueOf(cluster));
+			for (Number value : values)
+			{
+				out.write(',');
+				out.write(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+			}
+			out.write('\n');
+		});
+	}
+}
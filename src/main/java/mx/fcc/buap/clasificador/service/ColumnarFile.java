@@ -0,0 +1,264 @@
+package mx.fcc.buap.clasificador.service;
+
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.domain.AttributeType;
+import mx.fcc.buap.clasificador.domain.CategoryDictionary;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Formato binario por columnas de un ColumnarDataSet, que se escribe una sola vez a partir
+ * del CSV y despues se mapea en memoria con FileChannel.map, de modo que cargarlo no
+ * requiere leer ni convertir el archivo y las peticiones concurrentes comparten las
+ * paginas del sistema operativo en lugar de crear cada una su propia copia.
+ * <p>
+ * Todos los valores son little-endian. El encabezado contiene el numero magico, la
+ * version, el numero de instancias, el numero de columnas, el tipo de cada columna y el
+ * numero de categorias de cada columna, y se rellena hasta un multiplo de 8 bytes. Le
+ * sigue un bloque por columna: 8 bytes por instancia en las numericas y 4 bytes por
+ * instancia en las nominales, tambien rellenado hasta un multiplo de 8 bytes. Al final,
+ * por cada columna nominal, el numero de categorias que no declara el encabezado del CSV
+ * seguido de cada una como su longitud y su texto en ASCII, en el orden de sus codigos,
+ * para reconstruir el diccionario de la columna.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Log4j2
+public final class ColumnarFile
+{
+	private static final int MAGIC = 0x434C5346;
+	private static final int VERSION = 2;
+	public static final String EXTENSION = ".cols";
+
+	private ColumnarFile() {}
+
+	/**
+	 * Retorna la ruta del archivo binario que acompaña al CSV especificado.
+	 */
+	public static Path companionOf(Path csv)
+	{
+		return csv.resolveSibling(csv.getFileName() + EXTENSION);
+	}
+
+	/**
+	 * Escribe el conjunto de datos en el archivo especificado. El archivo se escribe
+	 * primero en un archivo temporal con nombre unico y despues se mueve a su destino,
+	 * por lo que un lector nunca ve un archivo incompleto, y dos escrituras simultaneas
+	 * del mismo archivo no mezclan sus bytes.
+	 *
+	 * @param dataSet el conjunto de datos a escribir
+	 * @param file el archivo destino
+	 * @throws IOException si ocurre un error al escribir el archivo
+	 */
+	public static void write(ColumnarDataSet dataSet, Path file) throws IOException
+	{
+		int rowSize = dataSet.getRowSize();
+		int columnSize = dataSet.getColumnSize();
+		Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE))
+		{
+			ByteBuffer header = ByteBuffer.allocate(headerSize(columnSize)).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(rowSize).putInt(columnSize);
+			for (int i = 0; i < columnSize; i++)
+				header.putInt(dataSet.getAttributeType().get(i));
+			for (int i = 0; i < columnSize; i++)
+				header.putInt(dataSet.getCardinality(i));
+			header.rewind();
+			writeFully(channel, header);
+
+			ByteBuffer block = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < columnSize; i++)
+			{
+				long written = 0;
+				for (int r = 0; r < rowSize; r++)
+				{
+					if (block.remaining() < Double.BYTES)
+						flush(channel, block);
+					if (dataSet.isNominal(i))
+					{
+						block.putInt(dataSet.getNominalColumn(i).get(r));
+						written += Integer.BYTES;
+					}
+					else
+					{
+						block.putDouble(dataSet.getNumericalColumn(i).get(r));
+						written += Double.BYTES;
+					}
+				}
+				for (; written % 8 != 0; written++)
+					block.put((byte) 0);
+				flush(channel, block);
+			}
+			writeDictionaries(channel, dataSet.getAttributeType());
+			channel.force(false);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.debug("Escrito {} ({} instancias, {} columnas)", file, rowSize, columnSize);
+	}
+
+	/**
+	 * Mapea en memoria el archivo especificado. Las columnas del conjunto resultante son
+	 * de solo lectura y siguen siendo validas despues de cerrar el archivo.
+	 *
+	 * @param file el archivo a mapear
+	 * @return el conjunto de datos respaldado por el archivo
+	 * @throws IOException si ocurre un error al leer el archivo, o si no tiene el formato esperado
+	 */
+	public static ColumnarDataSet map(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer prefix = ByteBuffer.allocate(4 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, prefix, 0);
+			prefix.flip();
+			if (prefix.getInt() != MAGIC || prefix.getInt() != VERSION)
+				throw new IOException("El archivo " + file + " no es un archivo de columnas valido");
+			int rowSize = prefix.getInt();
+			int columnSize = prefix.getInt();
+			if (rowSize < 0 || columnSize < 0)
+				throw new IOException("El archivo " + file + " tiene un encabezado invalido");
+
+			ByteBuffer header = ByteBuffer.allocate(2 * columnSize * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, prefix.capacity());
+			header.flip();
+			int[] types = new int[columnSize];
+			int[] cardinality = new int[columnSize];
+			for (int i = 0; i < columnSize; i++) types[i] = header.getInt();
+			for (int i = 0; i < columnSize; i++) cardinality[i] = header.getInt();
+
+			DoubleBuffer[] numerical = new DoubleBuffer[columnSize];
+			IntBuffer[] nominal = new IntBuffer[columnSize];
+			long offset = headerSize(columnSize);
+			for (int i = 0; i < columnSize; i++)
+			{
+				long length = (long) rowSize * (types[i] == 0 ? Double.BYTES : Integer.BYTES);
+				if (length > Integer.MAX_VALUE)
+					throw new IOException("La columna " + i + " de " + file + " excede 2GB");
+				if (offset + length > channel.size())
+					throw new IOException("El archivo " + file + " esta truncado");
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+				region.order(ByteOrder.LITTLE_ENDIAN);
+				if (types[i] == 0) numerical[i] = region.asDoubleBuffer();
+				else nominal[i] = region.asIntBuffer();
+				offset += (length + 7) & ~7L;
+			}
+			AttributeType type = new AttributeType(types);
+			readDictionaries(channel, offset, type, file);
+			log.debug("Mapeado {} ({} instancias, {} columnas)", file, rowSize, columnSize);
+			return new ColumnarDataSet(type, rowSize, numerical, nominal, cardinality);
+		}
+	}
+
+	/**
+	 * Escribe las categorias de cada columna nominal que no declara el encabezado del CSV.
+	 */
+	private static void writeDictionaries(FileChannel channel, AttributeType type) throws IOException
+	{
+		List<byte[]> categories = new ArrayList<>();
+		int[] undeclared = new int[type.size()];
+		int length = 0;
+		for (int i = 0; i < type.size(); i++)
+		{
+			if (type.isNumerical(i)) continue;
+			CategoryDictionary dictionary = type.getDictionary(i);
+			int size = dictionary.size();
+			undeclared[i] = size - type.get(i);
+			length += Integer.BYTES;
+			for (int code = type.get(i); code < size; code++)
+			{
+				byte[] category = dictionary.decode(code).toString().getBytes(StandardCharsets.US_ASCII);
+				categories.add(category);
+				length += Integer.BYTES + category.length;
+			}
+		}
+
+		ByteBuffer section = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		Iterator<byte[]> iterator = categories.iterator();
+		for (int i = 0; i < type.size(); i++)
+		{
+			if (type.isNumerical(i)) continue;
+			section.putInt(undeclared[i]);
+			for (int n = 0; n < undeclared[i]; n++)
+			{
+				byte[] category = iterator.next();
+				section.putInt(category.length).put(category);
+			}
+		}
+		section.flip();
+		writeFully(channel, section);
+	}
+
+	/**
+	 * Lee las categorias que escribe writeDictionaries y las agrega, en orden, al diccionario
+	 * de su columna, de modo que cada una recupera su codigo.
+	 */
+	private static void readDictionaries(FileChannel channel, long offset, AttributeType type, Path file)
+			throws IOException
+	{
+		ByteBuffer section = ByteBuffer.allocate((int) Math.min(channel.size() - offset, Integer.MAX_VALUE))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, section, offset);
+		section.flip();
+		try
+		{
+			for (int i = 0; i < type.size(); i++)
+			{
+				if (type.isNumerical(i)) continue;
+				for (int n = section.getInt(); n > 0; n--)
+				{
+					byte[] category = new byte[section.getInt()];
+					section.get(category);
+					type.encode(i, new BigDecimal(new String(category, StandardCharsets.US_ASCII)));
+				}
+			}
+		}
+		catch (BufferUnderflowException | NegativeArraySizeException | NumberFormatException e)
+		{
+			throw new IOException("El archivo " + file + " tiene un diccionario de categorias invalido", e);
+		}
+	}
+
+	private static int headerSize(int columnSize)
+	{
+		return ((4 + 2 * columnSize) * Integer.BYTES + 7) & ~7;
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer block) throws IOException
+	{
+		block.flip();
+		writeFully(channel, block);
+		block.clear();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining()) channel.write(buffer);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Fin inesperado del archivo");
+	}
+}
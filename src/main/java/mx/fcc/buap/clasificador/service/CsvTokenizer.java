@@ -0,0 +1,310 @@
+package mx.fcc.buap.clasificador.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lee un archivo CSV linea por linea directamente de un canal de bytes, a traves de un
+ * buffer de tamaño fijo, sin crear un String por linea ni por campo. Cada campo se copia a
+ * un arreglo reutilizable, donde se convierte a numero con parseDouble, parseInt o
+ * parseBigDecimal.
+ * <p>
+ * Igual que String.split, los campos vacios al final de una linea no se cuentan, y los
+ * campos vacios o invalidos intermedios se leen como cero.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public final class CsvTokenizer implements Closeable
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final char separator = ',';
+
+	/**
+	 * Potencias de diez que se representan exactamente como double.
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] bytes = buffer.array();
+	private int position;
+	private int limit;
+	private boolean endOfFile;
+
+	private char[] field = new char[64];
+	private int fieldStart;
+	private int fieldEnd;
+
+	/**
+	 * Recibe cada uno de los campos de una linea.
+	 */
+	@FunctionalInterface
+	public interface FieldHandler
+	{
+		/**
+		 * @param index la posicion del campo en la linea
+		 * @param tokenizer el tokenizer, posicionado en el campo
+		 */
+		void accept(int index, CsvTokenizer tokenizer);
+	}
+
+	public CsvTokenizer(ReadableByteChannel channel)
+	{
+		this.channel = channel;
+	}
+
+	public static CsvTokenizer open(Path file) throws IOException
+	{
+		return new CsvTokenizer(FileChannel.open(file));
+	}
+
+	/**
+	 * Retorna true si queda al menos un byte por leer.
+	 */
+	public boolean hasNextLine() throws IOException
+	{
+		return position < limit || fill();
+	}
+
+	/**
+	 * Lee la siguiente linea, invocando el handler con cada uno de sus campos.
+	 *
+	 * @param handler el receptor de los campos
+	 * @return el numero de campos de la linea sin contar los campos vacios del final,
+	 * o -1 si ya no hay lineas
+	 */
+	public int readLine(FieldHandler handler) throws IOException
+	{
+		if (!hasNextLine()) return -1;
+
+		int count = 0;
+		for (int index = 0; ; index++)
+		{
+			int terminator = readField();
+			handler.accept(index, this);
+			if (fieldEnd > fieldStart) count = index + 1;
+			if (terminator != separator) return count;
+		}
+	}
+
+	/**
+	 * Lee la siguiente linea como numeros de punto flotante. Los campos que no caben en
+	 * el arreglo se cuentan pero se descartan.
+	 *
+	 * @param values el arreglo donde se guardan los campos
+	 * @return el numero de campos de la linea, o -1 si ya no hay lineas
+	 */
+	public int readLine(double[] values) throws IOException
+	{
+		return readLine((i, csv) -> {
+			if (i < values.length) values[i] = csv.parseDouble();
+		});
+	}
+
+	/**
+	 * Lee la siguiente linea como BigDecimal. Los campos que no caben en el arreglo se
+	 * cuentan pero se descartan.
+	 *
+	 * @param values el arreglo donde se guardan los campos
+	 * @return el numero de campos de la linea, o -1 si ya no hay lineas
+	 */
+	public int readLine(BigDecimal[] values) throws IOException
+	{
+		return readLine((i, csv) -> {
+			if (i < values.length) values[i] = csv.parseBigDecimal();
+		});
+	}
+
+	/**
+	 * Lee la siguiente linea como una lista de enteros.
+	 *
+	 * @return los enteros de la linea, o un arreglo vacio si ya no hay lineas
+	 * @throws NumberFormatException si algun campo no es un entero
+	 */
+	public int[] readIntLine() throws IOException
+	{
+		int[][] values = { new int[16] };
+		int count = readLine((i, csv) -> {
+			if (csv.fieldEnd == csv.fieldStart) return;
+			if (i >= values[0].length) values[0] = Arrays.copyOf(values[0], i * 2);
+			values[0][i] = csv.parseInt();
+		});
+		return count <= 0 ? new int[0] : Arrays.copyOf(values[0], count);
+	}
+
+	/**
+	 * Copia el siguiente campo al arreglo de campo, sin espacios al inicio ni al final.
+	 *
+	 * @return el caracter que termino el campo: el separador, '\n', o -1 al final del archivo
+	 */
+	private int readField() throws IOException
+	{
+		int length = 0;
+		int b;
+		while (true)
+		{
+			if (position == limit && !fill())
+			{
+				b = -1;
+				break;
+			}
+			b = bytes[position++];
+			if (b == separator || b == '\n') break;
+			if (b == '\r') continue;
+			if (length == field.length) field = Arrays.copyOf(field, length * 2);
+			field[length++] = (char) (b & 0xFF);
+		}
+
+		int start = 0;
+		while (start < length && Character.isWhitespace(field[start])) start++;
+		while (length > start && Character.isWhitespace(field[length - 1])) length--;
+		fieldStart = start;
+		fieldEnd = length;
+		return b;
+	}
+
+	private boolean fill() throws IOException
+	{
+		if (endOfFile) return false;
+		buffer.clear();
+		int read;
+		do read = channel.read(buffer);
+		while (read == 0);
+		if (read < 0)
+		{
+			endOfFile = true;
+			position = limit = 0;
+			return false;
+		}
+		position = 0;
+		limit = buffer.position();
+		return true;
+	}
+
+	/**
+	 * Convierte el campo actual a double. Los numeros de hasta 15 digitos significativos
+	 * con exponente decimal de hasta 22 se convierten sin crear objetos, con el mismo
+	 * redondeo que Double.parseDouble; el resto se delega a Double.parseDouble.
+	 *
+	 * @return el valor del campo, o 0 si el campo esta vacio o no es un numero
+	 */
+	public double parseDouble()
+	{
+		int i = fieldStart, end = fieldEnd;
+		if (i == end) return 0;
+
+		boolean negative = false;
+		if (field[i] == '-' || field[i] == '+') negative = field[i++] == '-';
+
+		long mantissa = 0;
+		int significantDigits = 0, exponent = 0;
+		boolean anyDigit = false;
+		for (; i < end && isDigit(field[i]); i++)
+		{
+			anyDigit = true;
+			if (significantDigits > 0 || field[i] != '0') significantDigits++;
+			if (significantDigits <= 18) mantissa = mantissa * 10 + (field[i] - '0');
+			else exponent++;
+		}
+		if (i < end && field[i] == '.')
+		{
+			for (i++; i < end && isDigit(field[i]); i++)
+			{
+				anyDigit = true;
+				if (significantDigits > 0 || field[i] != '0') significantDigits++;
+				if (significantDigits <= 18)
+				{
+					mantissa = mantissa * 10 + (field[i] - '0');
+					exponent--;
+				}
+			}
+		}
+		if (anyDigit && i < end && (field[i] == 'e' || field[i] == 'E'))
+		{
+			int j = i + 1;
+			boolean negativeExponent = false;
+			if (j < end && (field[j] == '-' || field[j] == '+')) negativeExponent = field[j++] == '-';
+			int explicitExponent = 0;
+			boolean anyExponentDigit = false;
+			for (; j < end && isDigit(field[j]) && explicitExponent < 100_000; j++)
+			{
+				anyExponentDigit = true;
+				explicitExponent = explicitExponent * 10 + (field[j] - '0');
+			}
+			if (anyExponentDigit)
+			{
+				exponent += negativeExponent ? -explicitExponent : explicitExponent;
+				i = j;
+			}
+		}
+
+		if (!anyDigit || i != end || significantDigits > 15 || Math.abs(exponent) >= POWERS_OF_TEN.length)
+			return parseDoubleSlow();
+
+		double value = exponent >= 0 ?
+				mantissa * POWERS_OF_TEN[exponent] :
+				mantissa / POWERS_OF_TEN[-exponent];
+		return negative ? -value : value;
+	}
+
+	private double parseDoubleSlow()
+	{
+		try { return Double.parseDouble(new String(field, fieldStart, fieldEnd - fieldStart)); }
+		catch (NumberFormatException e) { return 0; }
+	}
+
+	/**
+	 * Convierte el campo actual a BigDecimal.
+	 *
+	 * @return el valor del campo, o BigDecimal.ZERO si el campo esta vacio o no es un numero
+	 */
+	public BigDecimal parseBigDecimal()
+	{
+		if (fieldStart == fieldEnd) return BigDecimal.ZERO;
+		try { return new BigDecimal(field, fieldStart, fieldEnd - fieldStart); }
+		catch (NumberFormatException e) { return BigDecimal.ZERO; }
+	}
+
+	/**
+	 * Convierte el campo actual a int.
+	 *
+	 * @return el valor del campo
+	 * @throws NumberFormatException si el campo no es un entero
+	 */
+	public int parseInt()
+	{
+		int i = fieldStart, end = fieldEnd;
+		boolean negative = false;
+		if (i < end && (field[i] == '-' || field[i] == '+')) negative = field[i++] == '-';
+		if (i == end || end - i > 9)
+			return Integer.parseInt(new String(field, fieldStart, fieldEnd - fieldStart));
+
+		int value = 0;
+		for (; i < end; i++)
+		{
+			if (!isDigit(field[i]))
+				throw new NumberFormatException("For input string: \"" +
+						new String(field, fieldStart, fieldEnd - fieldStart) + "\"");
+			value = value * 10 + (field[i] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
@@ -0,0 +1,182 @@
+package mx.fcc.buap.clasificador.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conserva en memoria las tablas leidas y normalizadas mas recientes, para que las
+ * peticiones que clasifican varias veces el mismo archivo con la misma normalizacion
+ * no lo vuelvan a leer ni a normalizar.
+ * <p>
+ * Cuando se excede el numero maximo de tablas o el tamaño maximo en bytes se descartan
+ * las tablas usadas hace mas tiempo. Todas las tablas de un archivo se descartan cuando
+ * el archivo se vuelve a guardar, y una tabla que se termina de leer despues de eso ya
+ * no se guarda, pues puede venir del archivo anterior. Los aciertos, fallos y descartes se publican en las
+ * metricas clasificador.cache.requests y clasificador.cache.evictions del Actuator.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Component
+@Log4j2
+public class DataSetCache
+{
+	private final int maxEntries;
+	private final long maxBytes;
+	private final LinkedHashMap<Key, DataTable> tables = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Numero de veces que se ha invalidado cada archivo.
+	 */
+	private final Map<Path, Long> generations = new HashMap<>();
+	private long bytes;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+
+	/**
+	 * Calcula una tabla que no esta en el cache.
+	 */
+	@FunctionalInterface
+	public interface Loader
+	{
+		DataTable load() throws IOException;
+	}
+
+	@Autowired
+	public DataSetCache(ClasificadorProperties properties, MeterRegistry registry)
+	{
+		this.maxEntries = properties.getCache().getMaxEntries();
+		this.maxBytes = properties.getCache().getMaxSize().toBytes();
+		this.hits = registry.counter("clasificador.cache.requests", "result", "hit");
+		this.misses = registry.counter("clasificador.cache.requests", "result", "miss");
+		this.evictions = registry.counter("clasificador.cache.evictions");
+		Gauge.builder("clasificador.cache.size", this, DataSetCache::size).register(registry);
+		Gauge.builder("clasificador.cache.bytes", this, DataSetCache::bytes).register(registry);
+	}
+
+	/**
+	 * Retorna la tabla del archivo con el modelo y la normalizacion especificados. Si no
+	 * esta en el cache, la calcula con el loader y la guarda. Dos peticiones simultaneas
+	 * de la misma tabla pueden calcularla ambas; el cache conserva la ultima.
+	 *
+	 * @param file el archivo del que se lee la tabla
+	 * @param mode el modelo de almacenamiento solicitado, o null si se escoge automaticamente
+	 * @param method el metodo de normalizacion, o null para la tabla sin normalizar
+	 * @param loader calcula la tabla si no esta en el cache
+	 * @return la tabla
+	 * @throws IOException si el loader no puede leer el archivo
+	 */
+	public DataTable get(Path file, StorageMode mode, String method, Loader loader) throws IOException
+	{
+		return get(file, mode, null, method, loader);
+	}
+
+	/**
+	 * Retorna la tabla del archivo con el modelo, la precision y la normalizacion
+	 * especificados; las tablas con distinta precision se guardan por separado.
+	 *
+	 * @see #get(Path, StorageMode, String, Loader)
+	 */
+	public DataTable get(Path file, StorageMode mode, NumericPrecision precision, String method, Loader loader)
+			throws IOException
+	{
+		Key key = new Key(file.toAbsolutePath().normalize(), mode, precision, method);
+		long generation;
+		synchronized (this)
+		{
+			DataTable table = tables.get(key);
+			if (table != null)
+			{
+				hits.increment();
+				return table;
+			}
+			generation = generations.getOrDefault(key.getFile(), 0L);
+		}
+		misses.increment();
+		DataTable table = loader.load();
+		put(key, table, generation);
+		return table;
+	}
+
+	/**
+	 * Descarta todas las tablas del archivo especificado.
+	 */
+	public synchronized void invalidate(Path file)
+	{
+		Path normalized = file.toAbsolutePath().normalize();
+		generations.merge(normalized, 1L, Long::sum);
+		Iterator<Map.Entry<Key, DataTable>> it = tables.entrySet().iterator();
+		while (it.hasNext())
+		{
+			Map.Entry<Key, DataTable> entry = it.next();
+			if (entry.getKey().getFile().equals(normalized))
+			{
+				bytes -= entry.getValue().getMemorySize();
+				it.remove();
+			}
+		}
+	}
+
+	public synchronized int size() { return tables.size(); }
+
+	public synchronized long bytes() { return bytes; }
+
+	/**
+	 * Guarda la tabla si el archivo no se invalido desde que se empezo a leer.
+	 *
+	 * @param generation el numero de invalidaciones del archivo antes de leerlo
+	 */
+	private synchronized void put(Key key, DataTable table, long generation)
+	{
+		if (generations.getOrDefault(key.getFile(), 0L) != generation)
+		{
+			log.debug("{} no se guarda en el cache: el archivo cambio mientras se leia", key);
+			return;
+		}
+		long size = table.getMemorySize();
+		if (size > maxBytes)
+		{
+			log.debug("{} no se guarda en el cache: ocupa {} bytes", key, size);
+			return;
+		}
+		DataTable previous = tables.put(key, table);
+		if (previous != null) bytes -= previous.getMemorySize();
+		bytes += size;
+
+		Iterator<Map.Entry<Key, DataTable>> eldest = tables.entrySet().iterator();
+		while (tables.size() > maxEntries || bytes > maxBytes)
+		{
+			Map.Entry<Key, DataTable> entry = eldest.next();
+			log.debug("Descartando del cache {}", entry.getKey());
+			bytes -= entry.getValue().getMemorySize();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	@Data
+	private static class Key
+	{
+		private final Path file;
+		private final StorageMode mode;
+		private final NumericPrecision precision;
+		private final String method;
+	}
+}
@@ -1,78 +1,330 @@
 package mx.fcc.buap.clasificador.service;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import mx.fcc.buap.clasificador.domain.AttributeType;
-import mx.fcc.buap.clasificador.domain.DataSet;
-import mx.fcc.buap.clasificador.domain.Row;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Carlos Montoya
  * @since 19/04/2019
  */
 @Service
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Log4j2
 public class DataSetService
 {
-	private static final String separator = ",";
+	private final ClasificadorProperties properties;
 
 	/**
-	 * Crea una instancia de DataSet a partir del archivo CSV pasado como parametro.
+	 * Un candado por archivo CSV, para que dos peticiones no lo conviertan a su version
+	 * binaria al mismo tiempo.
+	 */
+	private final ConcurrentHashMap<Path, Object> conversions = new ConcurrentHashMap<>();
+
+	/**
+	 * Crea una tabla a partir del archivo CSV pasado como parametro. Los archivos cuyo
+	 * tamaño alcanza clasificador.fast-mode-threshold se cargan en el modelo columnar,
+	 * y el resto en el modelo exacto.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @return La tabla creada
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public DataTable read(Path file) throws IOException
+	{
+		return read(file, null);
+	}
+
+	/**
+	 * Crea una tabla a partir del archivo CSV pasado como parametro, con el modelo de
+	 * almacenamiento especificado.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @param mode El modelo de almacenamiento, o null para escogerlo segun el tamaño del archivo
+	 * @return La tabla creada
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public DataTable read(Path file, StorageMode mode) throws IOException
+	{
+		if (mode == null)
+			mode = Files.size(file) >= properties.getFastModeThreshold().toBytes() ?
+					StorageMode.FAST : StorageMode.EXACT;
+		log.debug("Leyendo {} con el modelo {}", file, mode);
+		return mode == StorageMode.FAST ? mapColumnar(file) : readExact(file);
+	}
+
+	/**
+	 * Crea una tabla a partir del archivo CSV pasado como parametro, con el modelo de
+	 * almacenamiento que calcula con la precision especificada.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @param mode El modelo de almacenamiento si precision es null
+	 * @param precision La precision de los calculos, o null para usar el modelo especificado
+	 * @return La tabla creada
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public DataTable read(Path file, StorageMode mode, NumericPrecision precision) throws IOException
+	{
+		if (precision == null) return read(file, mode);
+		log.debug("Leyendo {} con precision {}", file, precision);
+		return precision.getMode() == StorageMode.FAST ? mapColumnar(file) : readExact(file, precision);
+	}
+
+	/**
+	 * Carga el ColumnarDataSet del archivo CSV pasado como parametro mapeando en memoria su
+	 * version binaria. Si la version binaria no existe, es anterior al CSV o no se puede
+	 * mapear (por ejemplo, porque tiene una version anterior del formato), la crea a partir
+	 * del CSV, de modo que el CSV solo se convierte una vez.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @return El ColumnarDataSet respaldado por el archivo binario
+	 * @throws IOException Si ocurre un error durante la lectura de los archivos
+	 */
+	public ColumnarDataSet mapColumnar(Path file) throws IOException
+	{
+		synchronized (conversionLock(file))
+		{
+			if (!hasColumnarFile(file))
+			{
+				ColumnarDataSet dataSet = convertToColumnar(file);
+				if (!hasColumnarFile(file)) return dataSet;
+			}
+		}
+		Path companion = ColumnarFile.companionOf(file);
+		try
+		{
+			return ColumnarFile.map(companion);
+		}
+		catch (IOException e)
+		{
+			log.warn("No se pudo mapear {}, se convierte de nuevo: {}", companion, e.getMessage());
+			return convertToColumnar(file);
+		}
+	}
+
+	/**
+	 * Convierte el archivo CSV pasado como parametro a su version binaria por columnas. Si
+	 * la escritura falla, el error se registra y se retorna de todos modos el conjunto leido.
+	 *
+	 * @param file El path del archivo csv a convertir
+	 * @return El ColumnarDataSet leido del CSV
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public ColumnarDataSet convertToColumnar(Path file) throws IOException
+	{
+		synchronized (conversionLock(file))
+		{
+			ColumnarDataSet dataSet = readColumnar(file);
+			writeColumnar(dataSet, file);
+			return dataSet;
+		}
+	}
+
+	/**
+	 * Guarda la version binaria de un archivo CSV que ya se leyo. Si la escritura falla,
+	 * el error se registra.
+	 *
+	 * @param dataSet el contenido del archivo CSV
+	 * @param file El path del archivo csv
+	 */
+	public void writeColumnar(ColumnarDataSet dataSet, Path file)
+	{
+		Path companion = ColumnarFile.companionOf(file);
+		synchronized (conversionLock(file))
+		{
+			try
+			{
+				ColumnarFile.write(dataSet, companion);
+			}
+			catch (IOException e)
+			{
+				log.error("No se pudo escribir " + companion, e);
+			}
+		}
+	}
+
+	private Object conversionLock(Path file)
+	{
+		return conversions.computeIfAbsent(file.toAbsolutePath().normalize(), f -> new Object());
+	}
+
+	/**
+	 * Retorna true si el archivo CSV tiene una version binaria tan reciente como el.
+	 */
+	private boolean hasColumnarFile(Path file) throws IOException
+	{
+		Path companion = ColumnarFile.companionOf(file);
+		return Files.exists(companion) &&
+				Files.getLastModifiedTime(companion).compareTo(Files.getLastModifiedTime(file)) >= 0;
+	}
+
+	/**
+	 * Crea una instancia de DataSet a partir del archivo CSV pasado como parametro. El
+	 * archivo se lee linea por linea, por lo que solo el DataSet ocupa memoria.
 	 *
 	 * @param file El path del archivo csv a cargar
 	 * @return El DataSet creado
 	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
 	 */
-	public DataSet read(Path file) throws IOException
+	public DataSet readExact(Path file) throws IOException
+	{
+		return readExact(file, NumericPrecision.HIGH);
+	}
+
+	/**
+	 * Crea una instancia de DataSet a partir del archivo CSV pasado como parametro, que
+	 * calcula con la precision especificada.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @param precision La precision de la normalizacion, las distancias y los centroides
+	 * @return El DataSet creado
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public DataSet readExact(Path file, NumericPrecision precision) throws IOException
+	{
+		try (CsvTokenizer csv = CsvTokenizer.open(file))
+		{
+			Header header = readHeader(csv);
+			DataSet dataSet = new DataSet(header.getTypes(), header.getRows(), header.getColumns());
+			dataSet.setPrecision(precision);
+			BigDecimal[] values = new BigDecimal[header.getColumns()];
+			for (int count; (count = csv.readLine(values)) >= 0; )
+			{
+				if (count == 0) continue;
+				if (count != values.length)
+					log.error("La instancia {} tiene un numero incorrecto de atributos: {}",
+							dataSet.getRowSize() + 1, count);
+				else
+				{
+					dataSet.add(new Row(values));
+					values = new BigDecimal[header.getColumns()];
+				}
+			}
+			return dataSet;
+		}
+	}
+
+	/**
+	 * Crea una instancia de ColumnarDataSet a partir del archivo CSV pasado como parametro.
+	 * El archivo se lee linea por linea y cada valor se escribe directamente en su columna,
+	 * por lo que solo el ColumnarDataSet ocupa memoria.
+	 *
+	 * @param file El path del archivo csv a cargar
+	 * @return El ColumnarDataSet creado
+	 * @throws IOException Si ocurre un error durante la lectura del archivo CSV
+	 */
+	public ColumnarDataSet readColumnar(Path file) throws IOException
+	{
+		return readColumnar(FileChannel.open(file));
+	}
+
+	/**
+	 * Crea una instancia de ColumnarDataSet leyendo un CSV del canal especificado, a
+	 * medida que sus bytes estan disponibles. Igual que en readExact, las categorias de
+	 * las columnas nominales se guardan con el codigo que les asigna el diccionario de la
+	 * columna, por lo que 2, 2.0 y 2.5 son categorias distintas en ambos modelos.
+	 *
+	 * @param channel el canal del que se lee el CSV; se cierra al terminar
+	 * @return El ColumnarDataSet creado
+	 * @throws IOException Si ocurre un error durante la lectura del canal
+	 */
+	public ColumnarDataSet readColumnar(ReadableByteChannel channel) throws IOException
 	{
-		int rows = 0, columns = 0;
-		AttributeType types = null;
-
-		Iterator<String> lineIterator = Files.readAllLines(file).iterator();
-		if (lineIterator.hasNext()) rows =
-				Integer.valueOf(lineIterator.next().split(separator)[0]);
-		if (lineIterator.hasNext())
-			columns = Integer.valueOf(lineIterator.next().split(separator)[0]);
-		if (lineIterator.hasNext())
-			types = new AttributeType(Arrays
-					.stream(lineIterator.next().split(separator))
-					.mapToInt(Integer::valueOf)
-					.toArray());
-
-		DataSet dataSet = new DataSet(types, rows, columns);
-		while (lineIterator.hasNext())
-			dataSet.add(new Row(
-					Arrays.stream(lineIterator.next().split(separator))
-							.map(this::convert)
-							.toArray(BigDecimal[]::new)));
-		return dataSet;
+		try (CsvTokenizer csv = new CsvTokenizer(channel))
+		{
+			Header header = readHeader(csv);
+			AttributeType type = header.getTypes();
+			ColumnarDataSet dataSet = new ColumnarDataSet(type, header.getRows(), header.getColumns());
+			double[] values = new double[header.getColumns()];
+			BigDecimal[] categories = new BigDecimal[header.getColumns()];
+			CsvTokenizer.FieldHandler handler = (i, field) -> {
+				if (i >= values.length) return;
+				if (type.isNominal(i)) categories[i] = field.parseBigDecimal();
+				else values[i] = field.parseDouble();
+			};
+			for (int count; (count = csv.readLine(handler)) >= 0; )
+			{
+				if (count == 0) continue;
+				if (count != values.length)
+				{
+					log.error("La instancia {} tiene un numero incorrecto de atributos: {}",
+							dataSet.getRowSize() + 1, count);
+					continue;
+				}
+				for (int i = 0; i < values.length; i++)
+					if (type.isNominal(i)) values[i] = type.encode(i, categories[i]);
+				dataSet.addEncoded(values);
+			}
+			return dataSet;
+		}
+	}
+
+	/**
+	 * Lee el encabezado de tres lineas de un archivo CSV: el numero de instancias, el
+	 * numero de columnas y el tipo de cada atributo.
+	 *
+	 * @param csv el tokenizer posicionado al inicio del archivo
+	 * @return el encabezado leido
+	 * @throws NumberFormatException si alguna linea del encabezado no es numerica
+	 */
+	public Header readHeader(CsvTokenizer csv) throws IOException
+	{
+		int[] rows = csv.readIntLine();
+		int[] columns = csv.readIntLine();
+		int[] types = csv.readIntLine();
+		return new Header(
+				rows.length > 0 ? rows[0] : 0,
+				columns.length > 0 ? columns[0] : 0,
+				types.length > 0 ? new AttributeType(types) : null);
 	}
 
 	public Set<Row> convertToRow(Path path) throws IOException
 	{
 		Set<Row> result = new HashSet<>();
-		for (String s : Files.readAllLines(path))
-			result.add(new Row(
-					Arrays.stream(s.split(separator))
-							.map(this::convert)
-							.toArray(BigDecimal[]::new)));
-		log.info("Centroides leidos:\n{}", result);
+		try (CsvTokenizer csv = CsvTokenizer.open(path))
+		{
+			List<BigDecimal> values = new ArrayList<>();
+			for (int count; (count = csv.readLine((i, field) -> values.add(field.parseBigDecimal()))) >= 0; )
+			{
+				if (count > 0)
+					result.add(new Row(values.subList(0, count).toArray(new BigDecimal[0])));
+				values.clear();
+			}
+		}
+		log.debug("{} centroides leidos de {}", result.size(), path);
 		return result;
 	}
 
-
-	private BigDecimal convert(String s)
+	/**
+	 * El encabezado de un archivo CSV de instancias.
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class Header
 	{
-		try { return new BigDecimal(s); }
-		catch (NumberFormatException e) { return BigDecimal.ZERO; }
+		private final int rows;
+		private final int columns;
+		private final AttributeType types;
+
+		/**
+		 * Retorna true si el encabezado declara al menos una columna y un tipo por columna.
+		 */
+		public boolean isValid() { return rows >= 0 && columns > 0 && types != null && types.size() == columns; }
 	}
 }
@@ -0,0 +1,80 @@
+package mx.fcc.buap.clasificador.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra en el log las tablas y las clasificaciones de cada trabajo. Por omision solo
+ * registra un resumen acotado (el tamaño, el minimo y el maximo de cada columna y las
+ * primeras ClasificadorProperties.Diagnostics.rows instancias); el contenido completo
+ * solo se registra si full-dumps esta activado y el nivel debug esta habilitado. Los
+ * textos se construyen solo si el nivel correspondiente esta habilitado.
+ * <p>
+ * Cada metodo retorna el tiempo que tomo registrar, que tambien se acumula en la metrica
+ * clasificador.logging del Actuator.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Component
+@Log4j2
+public class Diagnostics
+{
+	private final int rows;
+	private final boolean fullDumps;
+	private final Timer timer;
+
+	@Autowired
+	public Diagnostics(ClasificadorProperties properties, MeterRegistry registry)
+	{
+		this.rows = properties.getDiagnostics().getRows();
+		this.fullDumps = properties.getDiagnostics().isFullDumps();
+		this.timer = registry.timer("clasificador.logging");
+	}
+
+	/**
+	 * Registra una tabla.
+	 *
+	 * @param label el nombre de la tabla en el log, como "Original" o "min-max"
+	 * @param table la tabla
+	 * @return los nanosegundos que tomo registrarla
+	 */
+	public long table(String label, DataTable table)
+	{
+		long start = System.nanoTime();
+		log.info("{}:\n{}", () -> label, () -> table.toString(rows));
+		if (fullDumps)
+			log.debug("{} completo:\n{}", () -> label, table::toString);
+		return record(start);
+	}
+
+	/**
+	 * Registra el resultado de k-means.
+	 *
+	 * @param clusters la clasificacion
+	 * @return los nanosegundos que tomo registrarla
+	 */
+	public long clustering(Clustering clusters)
+	{
+		long start = System.nanoTime();
+		log.info("k-means:\n{}", () -> clusters.toString(rows));
+		if (fullDumps)
+			log.debug("k-means completo:\n{}", clusters::toString);
+		return record(start);
+	}
+
+	private long record(long start)
+	{
+		long elapsed = System.nanoTime() - start;
+		timer.record(elapsed, TimeUnit.NANOSECONDS);
+		return elapsed;
+	}
+}
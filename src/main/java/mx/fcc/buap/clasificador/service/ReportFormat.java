@@ -0,0 +1,26 @@
+package mx.fcc.buap.clasificador.service;
+
+/**
+ * Formato del archivo de resultado de una clasificacion.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public enum ReportFormat
+{
+	/**
+	 * El texto de Clustering.toString(): cada cluster con su centroide y sus instancias.
+	 */
+	TEXT("txt"),
+
+	/**
+	 * Una linea por instancia, con su numero, su cluster y sus valores.
+	 */
+	CSV("csv");
+
+	private final String extension;
+
+	ReportFormat(String extension) { this.extension = extension; }
+
+	public String getExtension() { return extension; }
+}
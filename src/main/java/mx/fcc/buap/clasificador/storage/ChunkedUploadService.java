@@ -0,0 +1,326 @@
+package mx.fcc.buap.clasificador.storage;
+
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.service.ColumnarFile;
+import mx.fcc.buap.clasificador.service.CsvTokenizer;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recibe archivos CSV por partes: se inicia una carga, se envia cada parte en orden y se
+ * completa. Cada parte se escribe directamente al final de un archivo temporal, sin
+ * pasar por los limites de multipart, y una parte que falla se descarta completa, por lo
+ * que el cliente puede reanudar desde nextChunk.
+ * <p>
+ * El encabezado del CSV se valida en cuanto llega la primera parte. Mientras llegan las
+ * demas, un hilo convierte al formato por columnas las instancias de las partes ya
+ * recibidas, de modo que al completarse la carga solo falta convertir la ultima parte.
+ * Si no hay un hilo libre, la conversion se hace al completar la carga.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Service
+@Log4j2
+public class ChunkedUploadService
+{
+	private static final String UPLOADS = ".uploads";
+	private static final int HEADER_BYTES = 64 * 1024;
+
+	private final StorageService storageService;
+	private final DataSetService dataSetService;
+	private final Duration idleTimeout;
+	private final ThreadPoolExecutor parsers;
+	private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+	@Autowired
+	public ChunkedUploadService(StorageService storageService, DataSetService dataSetService,
+	                            ClasificadorProperties properties)
+	{
+		this.storageService = storageService;
+		this.dataSetService = dataSetService;
+		this.idleTimeout = properties.getUploads().getIdleTimeout();
+
+		int threads = properties.getUploads().getParsers();
+		AtomicInteger counter = new AtomicInteger();
+		this.parsers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<>(),
+				r -> {
+					Thread thread = new Thread(r, "clasificador-upload-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Inicia la carga de un archivo.
+	 *
+	 * @param filename el nombre con el que se guardara el archivo
+	 * @return la carga, que espera la parte 0
+	 * @throws IllegalArgumentException si el nombre no es valido o esta reservado
+	 */
+	public UploadSession start(String filename) throws IOException
+	{
+		prune();
+		String clean = filename == null ? "" : StringUtils.cleanPath(filename);
+		if (clean.isEmpty() || clean.contains("..") || clean.contains("/") || isReserved(clean))
+			throw new IllegalArgumentException("Nombre de archivo invalido: " + filename);
+
+		Path directory = Files.createDirectories(storageService.load(UPLOADS));
+		String id = UUID.randomUUID().toString();
+		UploadSession session = new UploadSession(id, clean, Files.createFile(directory.resolve(id + ".part")));
+		sessions.put(id, session);
+		try
+		{
+			session.setConversion(parsers.submit(() -> dataSetService.readColumnar(session.openChannel(idleTimeout))));
+		}
+		catch (RejectedExecutionException e)
+		{
+			log.debug("Sin hilo libre para convertir {} mientras se carga", clean);
+		}
+		log.debug("Iniciada la carga {} de {}", id, clean);
+		return session;
+	}
+
+	/**
+	 * Retorna true si el nombre es de un archivo que crea el propio almacenamiento: los
+	 * archivos ocultos, como la carpeta de cargas, las versiones por columnas y los
+	 * archivos temporales.
+	 */
+	private static boolean isReserved(String filename)
+	{
+		return filename.startsWith(".") || filename.endsWith(ColumnarFile.EXTENSION) || filename.endsWith(".tmp");
+	}
+
+	/**
+	 * Retorna la carga con el identificador especificado.
+	 *
+	 * @throws StorageFileNotFoundException si no existe o ya se descarto
+	 */
+	public UploadSession get(String id)
+	{
+		UploadSession session = sessions.get(id);
+		if (session == null) throw new StorageFileNotFoundException("No existe la carga " + id);
+		return session;
+	}
+
+	/**
+	 * Agrega una parte al archivo. Una parte que ya se recibio se ignora, para que el
+	 * cliente pueda reintentar una parte cuya respuesta no recibio.
+	 *
+	 * @param id el identificador de la carga
+	 * @param chunk el numero de la parte, empezando en 0
+	 * @param body el contenido de la parte
+	 * @return la carga
+	 * @throws IllegalStateException si la parte no es la siguiente o la carga ya se completo
+	 * @throws IllegalArgumentException si la primera parte no empieza con un encabezado valido
+	 * @throws IOException si no se puede leer la parte; la parte se descarta
+	 */
+	public UploadSession append(String id, int chunk, InputStream body) throws IOException
+	{
+		UploadSession session = get(id);
+		session.getAppendLock().lock();
+		try
+		{
+			if (session.isCompleted())
+				throw new IllegalStateException("La carga " + id + " ya se completo");
+			if (chunk < session.getNextChunk()) return session;
+			if (chunk > session.getNextChunk())
+				throw new IllegalStateException("Se esperaba la parte " + session.getNextChunk() + " y se recibio " + chunk);
+
+			long start = session.getReceived();
+			try (FileChannel channel = FileChannel.open(session.getPart(), StandardOpenOption.WRITE))
+			{
+				try
+				{
+					long written = channel.transferFrom(Channels.newChannel(body), start, Long.MAX_VALUE);
+					session.committed(start + written);
+				}
+				catch (IOException e)
+				{
+					channel.truncate(start);
+					throw e;
+				}
+			}
+			if (!session.isHeaderValidated()) validateHeader(session, false);
+			return session;
+		}
+		finally
+		{
+			session.getAppendLock().unlock();
+		}
+	}
+
+	/**
+	 * Completa la carga: guarda el archivo con su nombre definitivo mediante StorageService,
+	 * reemplazando el anterior, junto con la version por columnas que se convirtio mientras
+	 * llegaban las partes.
+	 *
+	 * @param id el identificador de la carga
+	 * @return la carga completada
+	 * @throws IllegalArgumentException si el archivo no tiene un encabezado valido
+	 * @throws InvalidDataSetException si el archivo no se pudo convertir; la carga se descarta
+	 * @throws StorageException si no se pudo guardar el archivo; la carga se descarta, por
+	 *                          lo que debe iniciarse de nuevo
+	 */
+	public UploadSession complete(String id) throws IOException
+	{
+		UploadSession session = get(id);
+		session.getAppendLock().lock();
+		try
+		{
+			if (session.isCompleted()) return session;
+			if (!session.isHeaderValidated()) validateHeader(session, true);
+			session.seal();
+
+			try
+			{
+				storageService.store(session.getPart(), session.getFilename(), awaitConversion(session));
+			}
+			catch (RuntimeException e)
+			{
+				discard(session);
+				throw e;
+			}
+			session.completed();
+			log.debug("Completada la carga {} de {} ({} bytes, {} partes)", id, session.getFilename(),
+					session.getReceived(), session.getNextChunk());
+			return session;
+		}
+		finally
+		{
+			session.getAppendLock().unlock();
+		}
+	}
+
+	private ColumnarDataSet awaitConversion(UploadSession session)
+	{
+		Future<ColumnarDataSet> conversion = session.getConversion();
+		if (conversion == null) return null;
+		try
+		{
+			return conversion.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException e)
+		{
+			log.warn("Fallo la conversion de {} mientras se cargaba: {}", session.getFilename(), e.getCause().toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Valida las tres lineas del encabezado si ya se recibieron. Si el encabezado no es
+	 * valido, la carga se descarta.
+	 *
+	 * @param complete si ya se recibio todo el archivo, en cuyo caso un encabezado
+	 *                 incompleto tampoco es valido
+	 */
+	private void validateHeader(UploadSession session, boolean complete) throws IOException
+	{
+		ByteBuffer head = ByteBuffer.allocate((int) Math.min(HEADER_BYTES, session.getReceived()));
+		try (FileChannel channel = FileChannel.open(session.getPart(), StandardOpenOption.READ))
+		{
+			while (head.hasRemaining() && channel.read(head, head.position()) > 0) ;
+		}
+
+		int length = 0;
+		for (int lines = 0; length < head.position() && lines < 3; length++)
+			if (head.get(length) == '\n') lines++;
+		boolean whole = length > 0 && head.get(length - 1) == '\n';
+		if (!whole && !complete && head.position() < HEADER_BYTES) return;
+
+		boolean valid;
+		try (CsvTokenizer csv = new CsvTokenizer(Channels.newChannel(new ByteArrayInputStream(head.array(), 0, length))))
+		{
+			valid = dataSetService.readHeader(csv).isValid();
+		}
+		catch (RuntimeException e)
+		{
+			valid = false;
+		}
+		if (!valid)
+		{
+			discard(session);
+			throw new IllegalArgumentException("El archivo " + session.getFilename() + " no tiene un encabezado valido");
+		}
+		session.setHeaderValidated(true);
+	}
+
+	private void discard(UploadSession session) throws IOException
+	{
+		sessions.remove(session.getId());
+		session.abort();
+		Files.deleteIfExists(session.getPart());
+	}
+
+	/**
+	 * Descarta periodicamente las cargas inactivas, aunque no se inicien cargas nuevas,
+	 * para borrar sus archivos temporales.
+	 */
+	@Scheduled(fixedDelayString = "${clasificador.uploads.prune-interval:PT1M}")
+	public void pruneIdle()
+	{
+		try
+		{
+			prune();
+		}
+		catch (IOException e)
+		{
+			log.warn("No se pudieron descartar las cargas inactivas: {}", e.toString());
+		}
+	}
+
+	/**
+	 * Descarta las cargas que no han recibido partes en idleTimeout. Las cargas que estan
+	 * recibiendo una parte o completandose en este momento no se descartan.
+	 */
+	private void prune() throws IOException
+	{
+		long limit = System.currentTimeMillis() - idleTimeout.toMillis();
+		for (UploadSession session : sessions.values())
+		{
+			if (session.getLastActivity() >= limit || !session.getAppendLock().tryLock()) continue;
+			try
+			{
+				if (session.getLastActivity() < limit)
+				{
+					log.debug("Descartando la carga inactiva {}", session.getId());
+					discard(session);
+				}
+			}
+			finally
+			{
+				session.getAppendLock().unlock();
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() { parsers.shutdownNow(); }
+}
@@ -0,0 +1,20 @@
+package mx.fcc.buap.clasificador.storage;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escribe el contenido de un archivo de StorageService.store(String, ContentWriter).
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@FunctionalInterface
+public interface ContentWriter
+{
+	/**
+	 * @param out el destino, con buffer; no se debe cerrar
+	 * @throws IOException si no se puede escribir el contenido
+	 */
+	void write(Writer out) throws IOException;
+}
@@ -1,5 +1,10 @@
 package mx.fcc.buap.clasificador.storage;
 
+import lombok.extern.log4j.Log4j2;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.service.ColumnarFile;
+import mx.fcc.buap.clasificador.service.DataSetCache;
+import mx.fcc.buap.clasificador.service.DataSetService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -9,28 +14,52 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
+@Log4j2
 public class FileSystemStorageService implements StorageService {
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	private final Path rootLocation;
+	private final DataSetService dataSetService;
+	private final DataSetCache dataSetCache;
 
 	@Autowired
-	public FileSystemStorageService(StorageProperties properties) {
+	public FileSystemStorageService(StorageProperties properties, DataSetService dataSetService,
+	                                DataSetCache dataSetCache) {
 		this.rootLocation = Paths.get(properties.getLocation());
+		this.dataSetService = dataSetService;
+		this.dataSetCache = dataSetCache;
 	}
 
 	@Override
 	public void store(MultipartFile file) {
+		replace(file);
+	}
+
+	@Override
+	public void storeDataSet(MultipartFile file) {
+		convertToColumnar(replace(file));
+	}
+
+	private Path replace(MultipartFile file) {
 		String filename = StringUtils.cleanPath(file.getOriginalFilename());
 		try {
 			if (file.isEmpty()) {
@@ -43,8 +72,7 @@ public class FileSystemStorageService implements StorageService {
 								+ filename);
 			}
 			try (InputStream inputStream = file.getInputStream()) {
-				Files.copy(inputStream, this.rootLocation.resolve(filename),
-						StandardCopyOption.REPLACE_EXISTING);
+				return replace(filename, target -> Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING));
 			}
 		}
 		catch (IOException e) {
@@ -52,25 +80,136 @@ public class FileSystemStorageService implements StorageService {
 		}
 	}
 
+	@Override
+	public void store(Path source, String filename, ColumnarDataSet converted) {
+		Path target;
+		try {
+			target = replace(filename, file -> Files.move(source, file, StandardCopyOption.REPLACE_EXISTING));
+		}
+		catch (IOException e) {
+			throw new StorageException("Failed to store files " + filename, e);
+		}
+		if (converted != null) dataSetService.writeColumnar(converted, target);
+		else convertToColumnar(target);
+	}
+
+	/**
+	 * Reemplaza un archivo: borra su version binaria, escribe el archivo y lo descarta del
+	 * cache.
+	 */
+	private Path replace(String filename, CsvWriter writer) throws IOException {
+		Path target = this.rootLocation.resolve(filename);
+		Files.deleteIfExists(ColumnarFile.companionOf(target));
+		writer.write(target);
+		dataSetCache.invalidate(target);
+		return target;
+	}
+
+	private interface CsvWriter {
+		void write(Path target) throws IOException;
+	}
+
+	/**
+	 * Convierte el CSV recien guardado a su version binaria, para que el clasificador lo
+	 * mapee en memoria en lugar de volver a leerlo. Si el archivo no se puede leer se
+	 * borra, para no dejar guardado un conjunto de datos que no se podra clasificar.
+	 */
+	private void convertToColumnar(Path file) {
+		try {
+			dataSetService.convertToColumnar(file);
+		}
+		catch (IOException e) {
+			delete(file);
+			throw new StorageException("Failed to convert files " + file.getFileName(), e);
+		}
+		catch (RuntimeException e) {
+			delete(file);
+			throw new InvalidDataSetException("El archivo " + file.getFileName()
+					+ " no es un conjunto de datos valido: " + e.getMessage(), e);
+		}
+	}
+
+	private void delete(Path file) {
+		try {
+			Files.deleteIfExists(ColumnarFile.companionOf(file));
+			Files.deleteIfExists(file);
+		}
+		catch (IOException e) {
+			log.warn("No se pudo borrar {}: {}", file, e.toString());
+		}
+		dataSetCache.invalidate(file);
+	}
+
 	@Override
 	public void store(String content, String filename)
 	{
-		try
-		{
-			BufferedWriter writer = new BufferedWriter(new FileWriter(this.rootLocation.resolve(filename).toFile()));
-			writer.write(content);
-			writer.close();
+		store(filename, out -> out.write(content));
+	}
+
+	/**
+	 * Escribe el contenido en un archivo temporal de la misma carpeta y despues lo mueve a
+	 * su destino, de modo que dos escrituras simultaneas del mismo archivo no mezclan sus
+	 * bytes y una escritura que falla no deja un archivo incompleto.
+	 */
+	@Override
+	public void store(String filename, ContentWriter content)
+	{
+		Path target = this.rootLocation.resolve(filename);
+		try {
+			Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+			try {
+				try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+					OutputStream out = Channels.newOutputStream(channel);
+					if (filename.endsWith(".gz"))
+						out = new GZIPOutputStream(out, BUFFER_SIZE);
+					try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+						content.write(writer);
+					}
+				}
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(temporary);
+			}
+			dataSetCache.invalidate(target);
 		}
 		catch (IOException e) {
 			throw new StorageException("Failed to store files " + filename, e);
 		}
 	}
 
+	@Override
+	public void store(String filename, ContentWriter content, boolean precompressed)
+	{
+		store(filename, content);
+		if (!precompressed) return;
+
+		Path target = this.rootLocation.resolve(filename);
+		Path compressed = target.resolveSibling(target.getFileName() + ".gz");
+		try {
+			Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+			try {
+				try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE)) {
+					Files.copy(target, out);
+				}
+				Files.setLastModifiedTime(temporary, Files.getLastModifiedTime(target));
+				Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(temporary);
+			}
+		}
+		catch (IOException e) {
+			throw new StorageException("Failed to store files " + compressed.getFileName(), e);
+		}
+	}
+
 	@Override
 	public Stream<Path> loadAll() {
 		try {
 			return Files.walk(this.rootLocation, 1)
 					.filter(path -> !path.equals(this.rootLocation))
+					.filter(path -> !path.getFileName().toString().startsWith("."))
 					.map(this.rootLocation::relativize);
 		}
 		catch (IOException e) {
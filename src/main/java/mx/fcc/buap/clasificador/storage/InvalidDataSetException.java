@@ -0,0 +1,15 @@
+package mx.fcc.buap.clasificador.storage;
+
+/**
+ * Se lanza cuando un conjunto de datos recien guardado no se puede leer como CSV, por
+ * ejemplo porque le falta el encabezado de tres lineas. El archivo no se conserva.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+public class InvalidDataSetException extends StorageException {
+
+	public InvalidDataSetException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
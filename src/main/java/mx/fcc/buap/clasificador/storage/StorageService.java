@@ -1,5 +1,6 @@
 package mx.fcc.buap.clasificador.storage;
 
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -12,8 +13,39 @@ public interface StorageService {
 
 	void store(MultipartFile file);
 
+	/**
+	 * Guarda un conjunto de datos como store(file) y lo convierte a su version por
+	 * columnas antes de regresar.
+	 *
+	 * @throws InvalidDataSetException si el archivo no es un CSV valido; no se conserva
+	 */
+	void storeDataSet(MultipartFile file);
+
 	void store(String content, String filename);
 
+	/**
+	 * Crea o reemplaza un archivo escribiendo su contenido directamente en el, sin
+	 * construirlo antes en memoria. Si el nombre termina en ".gz" el contenido se
+	 * comprime con gzip.
+	 */
+	void store(String filename, ContentWriter content);
+
+	/**
+	 * Crea o reemplaza un archivo como store(filename, content) y, si precompressed es
+	 * true, guarda junto a el "filename.gz" con el mismo contenido comprimido y la misma
+	 * fecha de modificacion, que FileTransfer envia a los clientes que aceptan gzip.
+	 */
+	void store(String filename, ContentWriter content, boolean precompressed);
+
+	/**
+	 * Crea o reemplaza un CSV moviendo a su lugar un archivo ya escrito, como
+	 * storeDataSet(file). Si converted no es null se guarda como la version por columnas
+	 * del archivo en lugar de convertirlo otra vez.
+	 *
+	 * @throws InvalidDataSetException si el archivo no es un CSV valido; no se conserva
+	 */
+	void store(Path source, String filename, ColumnarDataSet converted);
+
 	Stream<Path> loadAll();
 
 	Path load(String filename);
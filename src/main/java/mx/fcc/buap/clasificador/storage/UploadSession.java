@@ -0,0 +1,162 @@
+package mx.fcc.buap.clasificador.storage;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estado de una carga por partes. Las partes se agregan en orden al final de un archivo
+ * temporal; received es el numero de bytes de las partes completas, y nextChunk el numero
+ * de la siguiente parte que se espera. Se serializa a JSON en las respuestas de la API de
+ * carga, para que el cliente sepa desde que parte reanudar.
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@Getter
+public class UploadSession
+{
+	private final String id;
+	private final String filename;
+	@JsonIgnore private final Path part;
+	private volatile int nextChunk;
+	private volatile long received;
+	private volatile boolean completed;
+	@JsonIgnore private volatile boolean sealed;
+	@JsonIgnore private volatile boolean aborted;
+	@JsonIgnore private volatile long lastActivity = System.currentTimeMillis();
+
+	/**
+	 * La conversion al formato por columnas que se ejecuta mientras llegan las partes, o
+	 * null si no habia un hilo libre.
+	 */
+	@JsonIgnore @Setter(AccessLevel.PACKAGE)
+	private volatile Future<ColumnarDataSet> conversion;
+
+	@JsonIgnore @Setter(AccessLevel.PACKAGE)
+	private volatile boolean headerValidated;
+
+	/**
+	 * Se adquiere mientras se escribe una parte, se completa o se descarta la carga.
+	 */
+	@JsonIgnore @Getter(AccessLevel.PACKAGE)
+	private final ReentrantLock appendLock = new ReentrantLock();
+
+	UploadSession(String id, String filename, Path part)
+	{
+		this.id = id;
+		this.filename = filename;
+		this.part = part;
+	}
+
+	synchronized void committed(long length)
+	{
+		received = length;
+		nextChunk++;
+		lastActivity = System.currentTimeMillis();
+		notifyAll();
+	}
+
+	/**
+	 * Indica que ya no llegaran mas partes, de modo que la lectura del archivo temporal
+	 * termina al llegar a received.
+	 */
+	synchronized void seal()
+	{
+		sealed = true;
+		lastActivity = System.currentTimeMillis();
+		notifyAll();
+	}
+
+	/**
+	 * Indica que el archivo ya se guardo con su nombre definitivo.
+	 */
+	void completed()
+	{
+		completed = true;
+		lastActivity = System.currentTimeMillis();
+	}
+
+	synchronized void abort()
+	{
+		aborted = true;
+		notifyAll();
+	}
+
+	/**
+	 * Abre un canal que lee el archivo temporal a medida que se completan las partes. Al
+	 * llegar a received, la lectura espera la siguiente parte; termina cuando ya no
+	 * llegaran mas partes.
+	 *
+	 * @param idleTimeout el tiempo maximo de espera de una parte
+	 * @return el canal
+	 * @throws IOException si no se puede abrir el archivo temporal
+	 */
+	ReadableByteChannel openChannel(Duration idleTimeout) throws IOException
+	{
+		FileChannel file = FileChannel.open(part, StandardOpenOption.READ);
+		return new ReadableByteChannel()
+		{
+			private long position;
+
+			@Override
+			public int read(ByteBuffer dst) throws IOException
+			{
+				long available = await(position, idleTimeout.toMillis());
+				if (available < 0) return -1;
+				int limit = dst.limit();
+				if (dst.remaining() > available - position)
+					dst.limit(dst.position() + (int) (available - position));
+				int n = file.read(dst, position);
+				dst.limit(limit);
+				if (n > 0) position += n;
+				return n;
+			}
+
+			@Override
+			public boolean isOpen() { return file.isOpen(); }
+
+			@Override
+			public void close() throws IOException { file.close(); }
+		};
+	}
+
+	/**
+	 * Espera a que haya bytes despues de la posicion especificada, y retorna hasta donde
+	 * se pueden leer, o -1 si la carga se completo y no hay mas.
+	 */
+	private synchronized long await(long position, long timeout) throws IOException
+	{
+		long deadline = System.currentTimeMillis() + timeout;
+		while (received <= position && !sealed && !aborted)
+		{
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0)
+				throw new IOException("La carga " + id + " no recibio partes en " + timeout + " ms");
+			try
+			{
+				wait(remaining);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Se interrumpio la lectura de la carga " + id);
+			}
+		}
+		if (aborted) throw new IOException("La carga " + id + " se descarto");
+		return received > position ? received : -1;
+	}
+}
@@ -1,6 +1,7 @@
 package mx.fcc.buap.clasificador.tools;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 
 /**
@@ -23,4 +24,17 @@ public class MathTools
 		}
 		return x1;
 	}
+
+	/**
+	 * Calcula la raiz cuadrada con los digitos significativos del MathContext, a partir de
+	 * la raiz en double y un paso del metodo de Newton, que duplica sus digitos correctos.
+	 */
+	public static BigDecimal sqrt(BigDecimal A, MathContext context)
+	{
+		if (A.signum() == 0) return BigDecimal.ZERO;
+		BigDecimal x0 = new BigDecimal(Math.sqrt(A.doubleValue()));
+		return A.divide(x0, context)
+				.add(x0)
+				.divide(new BigDecimal(2), context);
+	}
 }
@@ -0,0 +1,142 @@
+package mx.fcc.buap.clasificador.controller;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class FileTransferTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String CONTENT = "0123456789abcdefghij";
+
+	private Path file;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		file = folder.getRoot().toPath().resolve("report.txt");
+		Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void sendsTheWholeFileWithValidators() throws IOException
+	{
+		MockHttpServletResponse response = send(get());
+		assertEquals(200, response.getStatus());
+		assertEquals(CONTENT, response.getContentAsString());
+		assertNotNull(response.getHeader(HttpHeaders.ETAG));
+		assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+	}
+
+	@Test
+	public void answersNotModifiedToAMatchingETag() throws IOException
+	{
+		String etag = send(get()).getHeader(HttpHeaders.ETAG);
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		MockHttpServletResponse response = send(request);
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void sendsASingleRange() throws IOException
+	{
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+		MockHttpServletResponse response = send(request);
+		assertEquals(206, response.getStatus());
+		assertEquals("56789", response.getContentAsString());
+		assertEquals("bytes 5-9/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+	}
+
+	@Test
+	public void rejectsAnUnsatisfiableRange() throws IOException
+	{
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.RANGE, "bytes=50-60");
+		MockHttpServletResponse response = send(request);
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+	}
+
+	@Test
+	public void ignoresTheRangeWhenIfRangeDoesNotMatch() throws IOException
+	{
+		String etag = send(get()).getHeader(HttpHeaders.ETAG);
+
+		MockHttpServletRequest matching = get();
+		matching.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+		matching.addHeader(HttpHeaders.IF_RANGE, etag);
+		assertEquals(206, send(matching).getStatus());
+
+		MockHttpServletRequest stale = get();
+		stale.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+		stale.addHeader(HttpHeaders.IF_RANGE, "\"otro\"");
+		MockHttpServletResponse response = send(stale);
+		assertEquals(200, response.getStatus());
+		assertEquals(CONTENT, response.getContentAsString());
+	}
+
+	@Test
+	public void sendsOnlyAPrecompressedSibling() throws IOException
+	{
+		Path compressed = folder.getRoot().toPath().resolve("report.txt.gz");
+		Files.write(compressed, gzip("otro contenido"));
+		Files.setLastModifiedTime(compressed, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		MockHttpServletResponse response = send(request);
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(CONTENT, response.getContentAsString());
+
+		Files.write(compressed, gzip(CONTENT));
+		Files.setLastModifiedTime(compressed, Files.getLastModifiedTime(file));
+		response = send(request);
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertArrayEquals(gzip(CONTENT), response.getContentAsByteArray());
+
+		MockHttpServletRequest refused = get();
+		refused.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+		response = send(refused);
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(CONTENT, response.getContentAsString());
+	}
+
+	private static MockHttpServletRequest get() { return new MockHttpServletRequest("GET", "/files/report.txt"); }
+
+	private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException
+	{
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileTransfer.send(file, request, response);
+		return response;
+	}
+
+	private static byte[] gzip(String content) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes))
+		{
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+}
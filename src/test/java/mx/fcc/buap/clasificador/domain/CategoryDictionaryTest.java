@@ -0,0 +1,29 @@
+package mx.fcc.buap.clasificador.domain;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CategoryDictionaryTest
+{
+	@Test
+	public void declaredCategoriesKeepTheirCode()
+	{
+		CategoryDictionary dictionary = new CategoryDictionary(3);
+		assertEquals(2, dictionary.encode(new BigDecimal("2")));
+		assertEquals(3, dictionary.encode(new BigDecimal("7")));
+		assertEquals(3, dictionary.encode(new BigDecimal("7")));
+		assertEquals(4, dictionary.size());
+		assertSame(dictionary.decode(3), dictionary.decode(dictionary.encode(new BigDecimal("7"))));
+	}
+
+	@Test
+	public void modeTiesGoToTheSmallestCode()
+	{
+		assertEquals(1, ClusterStatistics.mode(new int[] { 0, 4, 2, 4 }));
+		assertEquals(0, ClusterStatistics.mode(new int[] { 0, 0 }));
+	}
+}
@@ -0,0 +1,34 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ColumnDispersionTest
+{
+	/**
+	 * La columna 1 separa los clusters, la columna 0 es ruido y la columna 2 es constante;
+	 * el DataSet exacto no tiene la columna constante porque su rango seria 0.
+	 */
+	@Test
+	public void separatingColumnComesFirst()
+	{
+		DataSet exact = new DataSet(new AttributeType(new int[] { 0, 0 }), 200, 2);
+		ColumnarDataSet columnar = new ColumnarDataSet(new AttributeType(new int[] { 0, 0, 0 }), 200, 3);
+		for (int r = 0; r < 200; r++)
+		{
+			double[] values = { (r * 37) % 11, r < 100 ? 0 : 50 + (r % 3), 5 };
+			columnar.add(values);
+			exact.add(new Row(new BigDecimal[] {
+					BigDecimal.valueOf(values[0]), BigDecimal.valueOf(values[1]) }));
+		}
+		KMeansOptions options = new KMeansOptions();
+		options.setSeed(3L);
+
+		assertArrayEquals(new int[] { 1, 0 }, exact.kMeans(2, options).getSortedColumns());
+		assertArrayEquals(new int[] { 1, 0, 2 }, columnar.kMeans(2, options).getPlottedColumns());
+	}
+}
@@ -0,0 +1,159 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.kmeans.StopReason;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarDataSetTest
+{
+	private static final Path numerical = Paths.get("csv-samples", "NumericalData.csv");
+	private static final Path mixed = Paths.get("csv-samples", "MixedData.csv");
+
+	private final DataSetService service = new DataSetService(new ClasificadorProperties());
+
+	@Test
+	public void readKeepsHeaderAndValues() throws IOException
+	{
+		DataSet exact = service.readExact(mixed);
+		ColumnarDataSet columnar = service.readColumnar(mixed);
+
+		assertEquals(exact.getRowSize(), columnar.getRowSize());
+		assertEquals(exact.getColumnSize(), columnar.getColumnSize());
+		assertSameValues(exact, columnar);
+	}
+
+	@Test
+	public void minMaxMatchesExactModel() throws IOException
+	{
+		assertSameValues(
+				service.readExact(numerical).minMax(BigDecimal.ZERO, BigDecimal.ONE),
+				service.readColumnar(numerical).minMax(BigDecimal.ZERO, BigDecimal.ONE));
+	}
+
+	@Test
+	public void summariesAreBounded() throws IOException
+	{
+		for (DataTable table : new DataTable[] { service.readExact(mixed), service.readColumnar(mixed) })
+		{
+			String summary = table.toString(3);
+			assertTrue(summary.contains("... " + (table.getRowSize() - 3) + " instancias mas"));
+			assertEquals(3, summary.split("\\{indice=", -1).length - 1);
+			assertEquals(table.toString(), table.toString(Integer.MAX_VALUE));
+
+			String clusters = table.kMeans(2).toString(1);
+			assertEquals(2, clusters.split("\\{indice=", -1).length - 1);
+		}
+	}
+
+	@Test
+	public void zScoreMatchesExactModel() throws IOException
+	{
+		assertSameValues(service.readExact(mixed).zScore(), service.readColumnar(mixed).zScore());
+	}
+
+	@Test
+	public void decimalScalingMatchesExactModel() throws IOException
+	{
+		assertSameValues(service.readExact(mixed).decimalScaling(), service.readColumnar(mixed).decimalScaling());
+	}
+
+	@Test
+	public void inPlaceNormalizationMatchesCopy() throws IOException
+	{
+		assertEquals(service.readColumnar(mixed).zScore().toString(), service.readColumnar(mixed).zScore(true).toString());
+		assertEquals(
+				service.readColumnar(numerical).decimalScaling().toString(),
+				service.readColumnar(numerical).decimalScaling(true).toString());
+	}
+
+	@Test
+	public void miniBatchIsCloseToLloyd() throws IOException
+	{
+		for (Path file : new Path[] { numerical, mixed })
+		{
+			ColumnarDataSet normalized = service.readColumnar(file).minMax(BigDecimal.ZERO, BigDecimal.ONE);
+			KMeansOptions lloyd = new KMeansOptions();
+			lloyd.setSeed(5L);
+			KMeansOptions miniBatch = new KMeansOptions();
+			miniBatch.setSeed(5L);
+			miniBatch.setAlgorithm(KMeansAlgorithm.MINI_BATCH);
+			miniBatch.setBatchSize(32);
+			miniBatch.setBatchIterations(50);
+
+			double expected = normalized.kMeans(4, lloyd).getInertia();
+			double actual = normalized.kMeans(4, miniBatch).getInertia();
+			assertTrue(actual < expected * 1.2);
+		}
+	}
+
+	@Test
+	public void kMeansMatchesExactModel() throws IOException
+	{
+		DataSet normalized = service.readExact(numerical).minMax(BigDecimal.ZERO, BigDecimal.ONE);
+		Set<Row> initial = new HashSet<>();
+		for (int r = 0; r < 200; r += 50)
+			initial.add(new Row(normalized.get(r).getAttributes()));
+		ClusterSet exact = normalized.kMeans(initial);
+		ColumnarClusterSet columnar = service.readColumnar(numerical)
+				.minMax(BigDecimal.ZERO, BigDecimal.ONE)
+				.kMeans(initial);
+
+		int[] exactSizes = StreamSupport.stream(exact.spliterator(), false)
+				.mapToInt(DataSet::getRowSize)
+				.sorted()
+				.toArray();
+		int[] columnarSizes = new int[columnar.size()];
+		for (int c = 0; c < columnarSizes.length; c++)
+			columnarSizes[c] = columnar.getClusterSize(c);
+		Arrays.sort(columnarSizes);
+
+		assertArrayEquals(exactSizes, columnarSizes);
+	}
+
+	@Test
+	public void stoppingCriteriaAreReported() throws IOException
+	{
+		for (DataTable normalized : new DataTable[] {
+				service.readExact(numerical).minMax(BigDecimal.ZERO, BigDecimal.ONE),
+				service.readColumnar(numerical).minMax(BigDecimal.ZERO, BigDecimal.ONE) })
+		{
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(11L);
+			Clustering converged = normalized.kMeans(4, options);
+			assertEquals(StopReason.CONVERGED, converged.getStopReason());
+
+			options.setMaxIterations(1);
+			Clustering capped = normalized.kMeans(4, options);
+			assertEquals(StopReason.MAX_ITERATIONS, capped.getStopReason());
+			assertEquals(1, capped.getIterations());
+
+			options.setMaxIterations(0);
+			options.setTolerance(1);
+			assertEquals(StopReason.TOLERANCE, normalized.kMeans(4, options).getStopReason());
+		}
+	}
+
+	private static void assertSameValues(DataSet exact, ColumnarDataSet columnar)
+	{
+		assertEquals(exact.getRowSize(), columnar.getRowSize());
+		for (int r = 0; r < exact.getRowSize(); r++)
+			for (int c = 0; c < exact.getColumnSize(); c++)
+				assertEquals(exact.get(r).get(c).doubleValue(), columnar.get(r, c), 1e-9);
+	}
+}
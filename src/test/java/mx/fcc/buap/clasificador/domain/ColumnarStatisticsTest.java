@@ -0,0 +1,71 @@
+package mx.fcc.buap.clasificador.domain;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnarStatisticsTest
+{
+	@Test
+	public void mergedBlocksMatchTwoPassStatistics()
+	{
+		int rows = 5 * ColumnarStatistics.LEAF_SIZE + 17;
+		Random random = new Random(2);
+		ColumnarDataSet dataSet = new ColumnarDataSet(new AttributeType(new int[] { 0, 4, 0 }), rows, 3);
+		for (int r = 0; r < rows; r++)
+			dataSet.add(new double[] { 1e6 + random.nextGaussian(), random.nextInt(4), -random.nextDouble() * 50 });
+
+		ColumnarStatistics statistics = ColumnarStatistics.of(dataSet);
+		double[] average = new double[3], deviation = new double[3], min = { 0, 0, 0 }, max = { 0, 0, 0 };
+		int[] frequency = new int[4];
+		for (int c : new int[] { 0, 2 })
+		{
+			double sum = 0;
+			min[c] = Double.POSITIVE_INFINITY;
+			max[c] = Double.NEGATIVE_INFINITY;
+			for (int r = 0; r < rows; r++)
+			{
+				double value = dataSet.get(r, c);
+				sum += value;
+				min[c] = Math.min(min[c], value);
+				max[c] = Math.max(max[c], value);
+			}
+			average[c] = sum / rows;
+			double squares = 0;
+			for (int r = 0; r < rows; r++)
+				squares += (dataSet.get(r, c) - average[c]) * (dataSet.get(r, c) - average[c]);
+			deviation[c] = Math.sqrt(squares / rows);
+		}
+		for (int r = 0; r < rows; r++)
+			frequency[(int) dataSet.get(r, 1)]++;
+
+		assertEquals(rows, statistics.getCount());
+		assertArrayEquals(min, statistics.getMinRow(), 0);
+		assertArrayEquals(max, statistics.getMaxRow(), 0);
+		assertArrayEquals(average, statistics.getAverageRow(), 1e-6);
+		assertArrayEquals(deviation, statistics.getStandardDeviationRow(), 1e-9);
+		assertArrayEquals(frequency, statistics.getFrequencies(1));
+	}
+
+	@Test
+	public void statisticsCollectedWhileAddingMatchOf()
+	{
+		int rows = 3 * ColumnarStatistics.LEAF_SIZE + 5;
+		Random random = new Random(3);
+		ColumnarDataSet dataSet = new ColumnarDataSet(new AttributeType(new int[] { 0, 2 }), 16, 2);
+		for (int r = 0; r < rows; r++)
+			dataSet.add(new double[] { random.nextGaussian() * 1e3, r < rows / 2 ? random.nextInt(2) : random.nextInt(5) });
+
+		ColumnarStatistics collected = dataSet.getStatistics();
+		ColumnarStatistics computed = ColumnarStatistics.of(dataSet);
+		assertEquals(computed.getCount(), collected.getCount());
+		assertArrayEquals(computed.getMinRow(), collected.getMinRow(), 0);
+		assertArrayEquals(computed.getMaxRow(), collected.getMaxRow(), 0);
+		assertArrayEquals(computed.getAverageRow(), collected.getAverageRow(), 0);
+		assertArrayEquals(computed.getStandardDeviationRow(), collected.getStandardDeviationRow(), 0);
+		assertArrayEquals(computed.getFrequencies(1), collected.getFrequencies(1));
+	}
+}
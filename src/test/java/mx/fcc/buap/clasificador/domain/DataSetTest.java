@@ -0,0 +1,68 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataSetTest
+{
+	private static final Path mixed = Paths.get("csv-samples", "MixedData.csv");
+
+	private final DataSetService service = new DataSetService(new ClasificadorProperties());
+
+	@Test
+	public void inPlaceNormalizationMatchesCopy() throws IOException
+	{
+		assertSameNormalization(d -> d.minMax(BigDecimal.ZERO, BigDecimal.ONE), d -> d.minMax(BigDecimal.ZERO, BigDecimal.ONE, true));
+		assertSameNormalization(DataSet::zScore, d -> d.zScore(true));
+		assertSameNormalization(DataSet::decimalScaling, d -> d.decimalScaling(true));
+	}
+
+	@Test
+	public void incrementalCentroidsMatchClusterAverages() throws IOException
+	{
+		DataSet normalized = service.readExact(mixed).minMax(BigDecimal.ZERO, BigDecimal.ONE);
+		for (int maxIterations : new int[] { 1, 3, 0 })
+		{
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(3L);
+			options.setMaxIterations(maxIterations);
+			for (Cluster cluster : normalized.kMeans(4, options))
+			{
+				// El centroide incremental se acumula con addToCentroid y removeFromCentroid
+				cluster.recomputeCentroid();
+				Row expected = cluster.computeAverageRow();
+				for (int c = 0; c < normalized.getColumnSize(); c++)
+					assertEquals(0, expected.get(c).compareTo(cluster.getCentroid().get(c)));
+			}
+		}
+	}
+
+	private void assertSameNormalization(Function<DataSet, DataSet> copy, Function<DataSet, DataSet> inPlace)
+			throws IOException
+	{
+		DataSet expected = copy.apply(service.readExact(mixed));
+		DataSet source = service.readExact(mixed);
+		DataSet actual = inPlace.apply(source);
+
+		assertEquals(0, source.getRowSize());
+		assertEquals(expected.getRowSize(), actual.getRowSize());
+		for (int r = 0; r < expected.getRowSize(); r++)
+		{
+			DataRow row = (DataRow) actual.get(r);
+			assertEquals(((DataRow) expected.get(r)).getIndice(), row.getIndice());
+			for (int c = 0; c < expected.getColumnSize(); c++)
+				assertEquals(0, expected.get(r).get(c).compareTo(row.get(c)));
+		}
+		assertEquals(expected.getRangeRow(), actual.getRangeRow());
+	}
+}
@@ -0,0 +1,38 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumericPrecisionTest
+{
+	@Test
+	public void decimal64RoundsToSixteenDigits()
+	{
+		BigDecimal third = NumericPrecision.DECIMAL64.divide(BigDecimal.ONE, new BigDecimal(3));
+		assertEquals(16, third.precision());
+		assertEquals(new BigDecimal("1.414213562373095"), NumericPrecision.DECIMAL64.sqrt(new BigDecimal(2)));
+		assertEquals(25, NumericPrecision.HIGH.divide(BigDecimal.ONE, new BigDecimal(3)).scale());
+		assertEquals(0, NumericPrecision.DECIMAL64.sqrt(BigDecimal.ZERO).signum());
+	}
+
+	@Test
+	public void tiersAgreeOnTheSampleFile() throws IOException
+	{
+		DataSetService service = new DataSetService(new ClasificadorProperties());
+		KMeansOptions options = new KMeansOptions();
+		options.setSeed(7L);
+		double high = service.readExact(Paths.get("csv-samples", "NumericalData.csv"), NumericPrecision.HIGH)
+				.minMax(BigDecimal.ZERO, BigDecimal.ONE).kMeans(4, options).getInertia();
+		double decimal64 = service.readExact(Paths.get("csv-samples", "NumericalData.csv"), NumericPrecision.DECIMAL64)
+				.minMax(BigDecimal.ZERO, BigDecimal.ONE).kMeans(4, options).getInertia();
+		assertEquals(high, decimal64, high * 1e-9);
+	}
+}
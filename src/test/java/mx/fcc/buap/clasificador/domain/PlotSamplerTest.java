@@ -0,0 +1,39 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class PlotSamplerTest
+{
+	@Test
+	public void keepsAtMostMaxPointsPerCluster()
+	{
+		ColumnarDataSet dataSet = new ColumnarDataSet(new AttributeType(new int[] { 0, 0 }), 1000, 2);
+		for (int r = 0; r < 1000; r++)
+			dataSet.add(new double[] { r < 500 ? r : 10_000 + r, r % 7 });
+		KMeansOptions options = new KMeansOptions();
+		options.setSeed(1L);
+		ColumnarClusterSet clusters = dataSet.kMeans(2, options);
+
+		for (PlotSampling sampling : PlotSampling.values())
+		{
+			List<Map<String, Object>> json = clusters.toJson(100, sampling);
+			int total = 0;
+			for (Map<String, Object> cluster : json)
+			{
+				Object[][] points = (Object[][]) cluster.get("data");
+				assertEquals(100, points.length);
+				for (Object[] point : points) assertNotNull(point);
+				total += (Integer) cluster.get("count");
+			}
+			assertEquals(1000, total);
+		}
+		assertEquals(500, ((Object[][]) clusters.toJson().get(0).get("data")).length);
+	}
+}
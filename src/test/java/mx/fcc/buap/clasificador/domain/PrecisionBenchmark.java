@@ -0,0 +1,93 @@
+package mx.fcc.buap.clasificador.domain;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el numero de clasificaciones por segundo de cada NumericPrecision sobre los
+ * archivos de csv-samples: normalizacion min-max y k-means con la misma semilla. Antes
+ * de medir imprime la desviacion de cada precision respecto a HIGH: la diferencia
+ * relativa de la inercia y la fraccion de instancias asignadas a otro cluster.
+ * <p>
+ * Se ejecuta con:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main PrecisionBenchmark
+ * </pre>
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrecisionBenchmark
+{
+	private static final int K = 4;
+	private static final long SEED = 7;
+
+	@Param({"NumericalData.csv", "NumericalData3D.csv", "MixedData.csv"})
+	private String file;
+
+	@Param({"DOUBLE", "DECIMAL64", "HIGH"})
+	private NumericPrecision precision;
+
+	private DataTable table;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		table = read(precision);
+		Clustering reference = classify(read(NumericPrecision.HIGH));
+		Clustering result = classify(table);
+
+		int moved = 0;
+		for (int r = 0; r < table.getRowSize(); r++)
+			if (result.getCluster(r) != reference.getCluster(r)) moved++;
+		System.out.printf("%n%s %s: desviacion de la inercia %.3e, instancias en otro cluster %d/%d%n",
+				file, precision,
+				Math.abs(result.getInertia() - reference.getInertia()) / reference.getInertia(),
+				moved, table.getRowSize());
+	}
+
+	private DataTable read(NumericPrecision precision) throws IOException
+	{
+		Path path = Paths.get("csv-samples", file);
+		DataSetService service = new DataSetService(new ClasificadorProperties());
+		return precision == NumericPrecision.DOUBLE ? service.readColumnar(path) : service.readExact(path, precision);
+	}
+
+	private static Clustering classify(DataTable table)
+	{
+		KMeansOptions options = new KMeansOptions();
+		options.setSeed(SEED);
+		return table
+				.minMax(BigDecimal.ZERO, BigDecimal.ONE)
+				.kMeans(K, options);
+	}
+
+	@Benchmark
+	public Clustering normalizeAndClassify() { return classify(table); }
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(PrecisionBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,267 @@
+package mx.fcc.buap.clasificador.job;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.NumericPrecision;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.dto.ClusteringRequest;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.service.DataSetCache;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import mx.fcc.buap.clasificador.service.Diagnostics;
+import mx.fcc.buap.clasificador.storage.FileSystemStorageService;
+import mx.fcc.buap.clasificador.storage.StorageProperties;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ClusteringJobServiceTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ClasificadorProperties properties = new ClasificadorProperties();
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ClusteringJobService service;
+
+	@After
+	public void tearDown()
+	{
+		release.countDown();
+		if (service != null) service.shutdown();
+	}
+
+	@Test
+	public void submittedJobReportsItsStatus() throws Exception
+	{
+		service = service(2, 16, 32);
+		ClusteringJob job = service.submit(request());
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		assertSame(job, service.get(job.getId()));
+		assertEquals(JobPhase.PARSING, job.getPhase());
+		assertNull(job.getInertia());
+
+		release.countDown();
+		await(job);
+		assertEquals(JobPhase.DONE, job.getPhase());
+		assertTrue(job.getIteration() > 0);
+		assertEquals(job.getResult().getInertia(), job.getInertia(), 0);
+		assertNotNull(job.getResult());
+		assertTrue(Files.exists(folder.getRoot().toPath().resolve(job.getResultFilename())));
+		assertTrue(job.getResultFilename().contains(job.getId()));
+
+		ClusteringRequest request = request();
+		request.setMinImprovement(1e-9);
+		ClusteringJob measured = await(service.submit(request));
+		assertEquals(JobPhase.DONE, measured.getPhase());
+		assertNotNull(measured.getInertia());
+	}
+
+	@Test
+	public void fullQueueRejectsJobs() throws Exception
+	{
+		service = service(1, 1, 32);
+		ClusteringJob running = service.submit(request());
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		ClusteringJob queued = service.submit(request());
+		try
+		{
+			service.submit(request());
+			fail("Se acepto un trabajo con la cola llena");
+		}
+		catch (JobRejectedException expected) {}
+		assertEquals(JobPhase.QUEUED, queued.getPhase());
+
+		release.countDown();
+		assertEquals(JobPhase.DONE, await(running).getPhase());
+		assertEquals(JobPhase.DONE, await(queued).getPhase());
+	}
+
+	@Test
+	public void finishedJobsArePruned() throws Exception
+	{
+		service = service(1, 16, 1);
+		release.countDown();
+		ClusteringJob first = await(service.submit(request()));
+		ClusteringJob second = await(service.submit(request()));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (service.get(first.getId()) != null && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		assertNull(service.get(first.getId()));
+		assertSame(second, service.get(second.getId()));
+	}
+
+	@Test
+	public void oldResultsAreReleasedBeyondTheMemoryBound() throws Exception
+	{
+		properties.getJobs().setMaxResultSize(DataSize.ofBytes(1));
+		service = service(1, 16, 32);
+		release.countDown();
+		ClusteringJob first = await(service.submit(request()));
+		ClusteringJob second = await(service.submit(request()));
+
+		// el trabajo descarta los resultados despues de terminar
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (first.getResult() != null && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		assertSame(first, service.get(first.getId()));
+		assertNull(first.getResult());
+		assertNotNull(first.getInertia());
+		assertTrue(Files.exists(folder.getRoot().toPath().resolve(first.getResultFilename())));
+		// el resultado mas reciente se conserva aunque exceda el limite
+		assertNotNull(second.getResult());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownMethodIsRejected() throws IOException
+	{
+		service = service(1, 1, 1);
+		ClusteringRequest request = request();
+		request.setMethod("max-abs");
+		service.submit(request);
+	}
+
+	@Test
+	public void filesOutsideTheStorageAreRejected() throws IOException
+	{
+		service = service(1, 1, 1);
+		for (String name : new String[] { "../NumericalData.csv", "otra/NumericalData.csv", "..\\datos.csv", "" })
+		{
+			ClusteringRequest request = request();
+			request.setFilename(name);
+			assertRejected(request);
+			request = request();
+			request.setCentroids(name);
+			assertRejected(request);
+		}
+	}
+
+	@Test
+	public void invalidClusterCountsAreRejected() throws IOException
+	{
+		service = service(1, 1, 1);
+		Integer[][] invalid = { { null, null }, { 0, null }, { -2, null }, { 3, 2 }, { 1, 4 } };
+		for (Integer[] clusters : invalid)
+		{
+			ClusteringRequest request = request();
+			request.setNumberOfClusters(clusters[0]);
+			request.setMaxClusters(clusters[1]);
+			assertRejected(request);
+		}
+	}
+
+	@Test
+	public void miniBatchRunsInTheColumnarModel()
+	{
+		ClusteringRequest request = new ClusteringRequest();
+		assertNull(ClusteringJobService.storageMode(request));
+		request.setAlgorithm(KMeansAlgorithm.MINI_BATCH);
+		assertEquals(StorageMode.FAST, ClusteringJobService.storageMode(request));
+		request.setPrecision(NumericPrecision.DOUBLE);
+		assertEquals(StorageMode.FAST, ClusteringJobService.storageMode(request));
+	}
+
+	@Test
+	public void hamerlyRunsInTheColumnarModel()
+	{
+		ClusteringRequest request = new ClusteringRequest();
+		request.setAlgorithm(KMeansAlgorithm.HAMERLY);
+		assertEquals(StorageMode.FAST, ClusteringJobService.storageMode(request));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void hamerlyIsRejectedInTheExactModel()
+	{
+		ClusteringRequest request = new ClusteringRequest();
+		request.setAlgorithm(KMeansAlgorithm.HAMERLY);
+		request.setMode(StorageMode.EXACT);
+		ClusteringJobService.storageMode(request);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void miniBatchIsRejectedInTheExactModel()
+	{
+		ClusteringRequest request = new ClusteringRequest();
+		request.setAlgorithm(KMeansAlgorithm.MINI_BATCH);
+		request.setPrecision(NumericPrecision.DECIMAL64);
+		ClusteringJobService.storageMode(request);
+	}
+
+	/**
+	 * Crea el servicio sobre una carpeta con NumericalData.csv. La lectura del archivo
+	 * espera a release, de modo que los trabajos permanecen en la etapa PARSING.
+	 */
+	private ClusteringJobService service(int threads, int queueCapacity, int retained) throws IOException
+	{
+		Files.copy(Paths.get("csv-samples", "NumericalData.csv"), folder.getRoot().toPath().resolve("NumericalData.csv"));
+		properties.getJobs().setThreads(threads);
+		properties.getJobs().setQueueCapacity(queueCapacity);
+		properties.getJobs().setRetained(retained);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DataSetService dataSetService = new DataSetService(properties)
+		{
+			@Override
+			public DataTable read(Path file, StorageMode mode, NumericPrecision precision) throws IOException
+			{
+				started.countDown();
+				try
+				{
+					release.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				return super.read(file, mode, precision);
+			}
+		};
+		StorageProperties storage = new StorageProperties();
+		storage.setLocation(folder.getRoot().getPath());
+		DataSetCache cache = new DataSetCache(properties, registry);
+		return new ClusteringJobService(new FileSystemStorageService(storage, dataSetService, cache),
+				dataSetService, cache, new Diagnostics(properties, registry), ForkJoinPool.commonPool(),
+				properties, registry);
+	}
+
+	private static ClusteringRequest request()
+	{
+		ClusteringRequest request = new ClusteringRequest();
+		request.setFilename("NumericalData.csv");
+		request.setMethod("min-max");
+		request.setNumberOfClusters(3);
+		request.setSeed(1L);
+		return request;
+	}
+
+	private static ClusteringJob await(ClusteringJob job) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!job.getPhase().isFinished() && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		return job;
+	}
+
+	private void assertRejected(ClusteringRequest request)
+	{
+		try
+		{
+			service.submit(request);
+			fail("Se acepto la solicitud " + request);
+		}
+		catch (IllegalArgumentException expected) {}
+	}
+}
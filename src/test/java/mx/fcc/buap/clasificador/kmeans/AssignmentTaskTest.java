@@ -0,0 +1,86 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.domain.AttributeType;
+import mx.fcc.buap.clasificador.domain.ColumnarClusterSet;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AssignmentTaskTest
+{
+	private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterClass
+	public static void shutdown() { pool.shutdown(); }
+
+	@Test
+	public void parallelKMeansMatchesSequential()
+	{
+		ColumnarDataSet dataSet = randomDataSet(5 * AssignmentTask.LEAF_SIZE + 123);
+
+		KMeansOptions sequential = new KMeansOptions();
+		sequential.setSeed(7L);
+		KMeansOptions parallel = new KMeansOptions();
+		parallel.setSeed(7L);
+		parallel.setPool(pool);
+
+		ColumnarClusterSet expected = dataSet.kMeans(6, sequential);
+		ColumnarClusterSet actual = dataSet.kMeans(6, parallel);
+
+		assertEquals(expected.size(), actual.size());
+		for (int c = 0; c < expected.size(); c++)
+		{
+			assertArrayEquals(expected.getCentroid(c), actual.getCentroid(c), 0);
+			assertEquals(expected.getClusterSize(c), actual.getClusterSize(c));
+		}
+		for (int r = 0; r < dataSet.getRowSize(); r++)
+			assertEquals(expected.getCluster(r), actual.getCluster(r));
+	}
+
+	@Test
+	public void hamerlyMatchesLloyd()
+	{
+		ColumnarDataSet dataSet = randomDataSet(3 * AssignmentTask.LEAF_SIZE);
+
+		KMeansOptions lloyd = new KMeansOptions();
+		lloyd.setSeed(3L);
+		KMeansOptions hamerly = new KMeansOptions();
+		hamerly.setSeed(3L);
+		hamerly.setPool(pool);
+		hamerly.setAlgorithm(KMeansAlgorithm.HAMERLY);
+
+		ColumnarClusterSet expected = dataSet.kMeans(8, lloyd);
+		ColumnarClusterSet actual = dataSet.kMeans(8, hamerly);
+
+		for (int c = 0; c < expected.size(); c++)
+			assertArrayEquals(expected.getCentroid(c), actual.getCentroid(c), 0);
+		for (int r = 0; r < dataSet.getRowSize(); r++)
+			assertEquals(expected.getCluster(r), actual.getCluster(r));
+		assertEquals(0, expected.getSkippedDistances());
+		assertTrue(actual.getSkippedDistances() > 0);
+	}
+
+	static ColumnarDataSet randomDataSet(int rows)
+	{
+		Random random = new Random(1);
+		AttributeType type = new AttributeType(new int[]{0, 0, 3, 0, 0});
+		ColumnarDataSet dataSet = new ColumnarDataSet(type, rows, 5);
+		for (int r = 0; r < rows; r++)
+			dataSet.add(new double[]
+					{
+							random.nextGaussian() + r % 4,
+							random.nextGaussian() * 3,
+							random.nextInt(3),
+							random.nextDouble() * 10,
+							random.nextGaussian() - r % 3
+					});
+		return dataSet;
+	}
+}
@@ -0,0 +1,62 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KSweepTest
+{
+	@Test
+	public void sweepKeepsTheBestSilhouette() throws IOException
+	{
+		DataSetService service = new DataSetService(new ClasificadorProperties());
+		DataTable[] tables = {
+				service.readColumnar(Paths.get("csv-samples", "NumericalData.csv")).minMax(BigDecimal.ZERO, BigDecimal.ONE),
+				service.readExact(Paths.get("csv-samples", "MixedData.csv")).minMax(BigDecimal.ZERO, BigDecimal.ONE)
+		};
+		for (DataTable table : tables)
+		{
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(5L);
+			KSweep sweep = KSweep.run(table, 2, 5, options, 200);
+
+			int k = 2;
+			double best = -1;
+			for (SweepPoint point : sweep.getPoints())
+			{
+				assertEquals(k++, point.getK());
+				assertTrue(point.getSilhouette() >= -1 && point.getSilhouette() <= 1);
+				best = Math.max(best, point.getSilhouette());
+			}
+			assertEquals(sweep.getBest(), sweep.getClustering().size());
+			assertEquals(best, sweep.getPoints().get(sweep.getBest() - 2).getSilhouette(), 0);
+		}
+	}
+
+	@Test
+	public void elbowIsFarthestBelowTheChord()
+	{
+		assertEquals(3, KSweep.elbow(Arrays.asList(
+				new SweepPoint(2, 100, 0, 0, null),
+				new SweepPoint(3, 20, 0, 0, null),
+				new SweepPoint(4, 15, 0, 0, null),
+				new SweepPoint(5, 10, 0, 0, null))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void silhouetteSampleIsBounded()
+	{
+		ClasificadorProperties.Jobs jobs = new ClasificadorProperties().getJobs();
+		jobs.setSilhouetteSample(KSweep.MAX_SAMPLE);
+		jobs.setSilhouetteSample(50_000);
+	}
+}
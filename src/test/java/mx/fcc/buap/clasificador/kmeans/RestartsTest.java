@@ -0,0 +1,51 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.ColumnarClusterSet;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RestartsTest
+{
+	private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterClass
+	public static void shutdown() { pool.shutdown(); }
+
+	@Test
+	public void keepsLowestInertiaWithOrWithoutPool() throws IOException
+	{
+		ColumnarDataSet dataSet = new DataSetService(new ClasificadorProperties())
+				.readColumnar(Paths.get("csv-samples", "NumericalData.csv"))
+				.minMax(BigDecimal.ZERO, BigDecimal.ONE);
+
+		KMeansOptions sequential = new KMeansOptions();
+		sequential.setSeed(21L);
+		sequential.setInitialization(Initialization.RANDOM);
+		sequential.setRestarts(8);
+		KMeansOptions parallel = sequential.forRestart(21L, null);
+		parallel.setRestarts(8);
+		parallel.setPool(pool);
+
+		ColumnarClusterSet best = dataSet.kMeans(6, sequential);
+		assertEquals(best.getInertia(), dataSet.kMeans(6, parallel).getInertia(), 0);
+
+		Random seeds = new Random(21L);
+		for (int i = 0; i < 8; i++)
+		{
+			KMeansOptions single = sequential.forRestart(seeds.nextLong(), null);
+			assertTrue(best.getInertia() <= dataSet.kMeans(6, single).getInertia());
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class SeedingTest
+{
+	private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterClass
+	public static void shutdown() { pool.shutdown(); }
+
+	private static final int n = 1000;
+
+	/**
+	 * Instancias que solo toman 5 valores distintos: una estrategia basada en distancias
+	 * debe escoger un representante de cada valor.
+	 */
+	private static final Seeding.RowDistance duplicates = (a, b) -> (a % 5 - b % 5) * (a % 5 - b % 5);
+
+	@Test
+	public void seedingPicksEveryDistinctValue()
+	{
+		for (Initialization initialization : new Initialization[]
+				{ Initialization.KMEANS_PLUS_PLUS, Initialization.KMEANS_PARALLEL })
+		{
+			int[] chosen = Seeding.choose(initialization, n, 5, duplicates, new Random(11), null);
+			int[] values = Arrays.stream(chosen).map(i -> i % 5).sorted().toArray();
+			assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, values);
+		}
+	}
+
+	@Test
+	public void seedingIsReproducibleWithOrWithoutPool()
+	{
+		Seeding.RowDistance distance = (a, b) -> Math.abs(Math.sin(a) - Math.sin(b)) + Math.abs(a - b) / (double) n;
+		for (Initialization initialization : Initialization.values())
+			assertArrayEquals(
+					Seeding.choose(initialization, n, 8, distance, new Random(3), null),
+					Seeding.choose(initialization, n, 8, distance, new Random(3), pool));
+	}
+}
@@ -0,0 +1,122 @@
+package mx.fcc.buap.clasificador.kmeans;
+
+import mx.fcc.buap.clasificador.domain.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el numero de comparaciones instancia-centroide por segundo de DataRow.distance
+ * (BigDecimal con raiz cuadrada), DataRow.squaredDistance y el kernel SquaredDistance.
+ * Cada operacion es una comparacion entre una instancia de dims columnas y un centroide.
+ * <p>
+ * Se ejecuta con:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SquaredDistanceBenchmark
+ * </pre>
+ *
+ * @author Carlos Montoya
+ * @since 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SquaredDistanceBenchmark
+{
+	private static final int ROWS = 2_000;
+	private static final int K = 8;
+
+	@Param({"7", "29"})
+	private int dims;
+
+	private DataSet dataSet;
+	private Row[] rowCentroids;
+
+	private SquaredDistance kernel;
+	private double[][] centroids;
+
+	@Setup
+	public void setUp()
+	{
+		Random random = new Random(42);
+		int[] types = new int[dims];
+		AttributeType attributeType = new AttributeType(types);
+		dataSet = new DataSet(attributeType, ROWS, dims);
+		ColumnarDataSet columnar = new ColumnarDataSet(attributeType, ROWS, dims);
+		for (int r = 0; r < ROWS; r++)
+		{
+			double[] values = new double[dims];
+			BigDecimal[] attributes = new BigDecimal[dims];
+			for (int i = 0; i < dims; i++)
+			{
+				values[i] = random.nextInt(100_000) / 1000.0;
+				attributes[i] = BigDecimal.valueOf(values[i]);
+			}
+			columnar.add(values);
+			dataSet.add(new Row(attributes));
+		}
+
+		rowCentroids = new Row[K];
+		centroids = new double[K][];
+		for (int c = 0; c < K; c++)
+		{
+			int r = random.nextInt(ROWS);
+			rowCentroids[c] = dataSet.get(r);
+			centroids[c] = columnar.getRow(r);
+		}
+		kernel = new SquaredDistance(columnar);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS * K)
+	public void bigDecimalDistance(Blackhole blackhole)
+	{
+		for (DataRow row : dataSet)
+			for (Row centroid : rowCentroids)
+				blackhole.consume(row.distance(centroid));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS * K)
+	public void bigDecimalSquaredDistance(Blackhole blackhole)
+	{
+		for (DataRow row : dataSet)
+			for (Row centroid : rowCentroids)
+				blackhole.consume(row.squaredDistance(centroid));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS * K)
+	public void squaredDistanceKernel(Blackhole blackhole)
+	{
+		for (int r = 0; r < ROWS; r++)
+			for (double[] centroid : centroids)
+				blackhole.consume(kernel.between(r, centroid));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS * K)
+	public void nearestCentroid(Blackhole blackhole)
+	{
+		for (int r = 0; r < ROWS; r++)
+			blackhole.consume(kernel.nearest(r, centroids));
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(SquaredDistanceBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,61 @@
+package mx.fcc.buap.clasificador.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClusteringJsonWriterTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DataSetService service = new DataSetService(new ClasificadorProperties());
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void ndjsonHasOneLinePerCentroidAndRow() throws IOException
+	{
+		Path csv = folder.getRoot().toPath().resolve("MixedData.csv");
+		Files.copy(Paths.get("csv-samples", "MixedData.csv"), csv);
+		for (StorageMode mode : StorageMode.values())
+		{
+			DataTable table = service.read(csv, mode).zScore();
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(7L);
+			Clustering clusters = table.kMeans(3, options);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ClusteringJsonWriter.writeNdjson(clusters, out);
+			String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+			assertEquals(3 + table.getRowSize(), lines.length);
+
+			int size = 0;
+			for (int c = 0; c < 3; c++)
+				size += mapper.readTree(lines[c]).get("size").asInt();
+			assertEquals(table.getRowSize(), size);
+			JsonNode last = mapper.readTree(lines[lines.length - 1]);
+			assertEquals(table.getRowSize() - 1, last.get("row").asInt());
+			assertEquals(table.getColumnSize(), last.get("values").size());
+
+			out.reset();
+			ClusteringJsonWriter.writeJson(clusters, out);
+			assertEquals(table.getRowSize(), mapper.readTree(out.toByteArray()).get("rows").size());
+		}
+	}
+}
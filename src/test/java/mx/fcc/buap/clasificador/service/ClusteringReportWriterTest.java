@@ -0,0 +1,98 @@
+package mx.fcc.buap.clasificador.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.Clustering;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import mx.fcc.buap.clasificador.domain.StorageMode;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import mx.fcc.buap.clasificador.storage.FileSystemStorageService;
+import mx.fcc.buap.clasificador.storage.StorageException;
+import mx.fcc.buap.clasificador.storage.StorageProperties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ClusteringReportWriterTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void reportsAreStreamedToStorage() throws IOException
+	{
+		ClasificadorProperties properties = new ClasificadorProperties();
+		DataSetService service = new DataSetService(properties);
+		StorageProperties storage = new StorageProperties();
+		storage.setLocation(folder.getRoot().getPath());
+		FileSystemStorageService storageService = new FileSystemStorageService(storage, service,
+				new DataSetCache(properties, new SimpleMeterRegistry()));
+
+		Path csv = folder.getRoot().toPath().resolve("MixedData.csv");
+		Files.copy(Paths.get("csv-samples", "MixedData.csv"), csv);
+		for (StorageMode mode : StorageMode.values())
+		{
+			DataTable table = service.read(csv, mode).zScore();
+			KMeansOptions options = new KMeansOptions();
+			options.setSeed(7L);
+			Clustering clusters = table.kMeans(3, options);
+
+			storageService.store("clusters.txt", out -> ClusteringReportWriter.write(clusters, ReportFormat.TEXT, out));
+			assertEquals(clusters.toString(),
+					new String(Files.readAllBytes(storageService.load("clusters.txt")), StandardCharsets.UTF_8));
+
+			storageService.store("clusters.csv.gz", out -> ClusteringReportWriter.write(clusters, ReportFormat.CSV, out));
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+					new GZIPInputStream(Files.newInputStream(storageService.load("clusters.csv.gz"))), StandardCharsets.UTF_8)))
+			{
+				List<String> lines = reader.lines().collect(Collectors.toList());
+				assertEquals(table.getRowSize() + 1, lines.size());
+				assertEquals(table.getColumnSize() + 2, lines.get(0).split(",").length);
+				String[] first = lines.get(1).split(",");
+				assertEquals("0", first[0]);
+				assertEquals(String.valueOf(clusters.getCluster(0)), first[1]);
+			}
+		}
+	}
+
+	@Test
+	public void failedReportKeepsThePreviousFile() throws IOException
+	{
+		ClasificadorProperties properties = new ClasificadorProperties();
+		StorageProperties storage = new StorageProperties();
+		storage.setLocation(folder.getRoot().getPath());
+		FileSystemStorageService storageService = new FileSystemStorageService(storage,
+				new DataSetService(properties), new DataSetCache(properties, new SimpleMeterRegistry()));
+
+		storageService.store("clusters.txt", out -> out.write("anterior"));
+		try
+		{
+			storageService.store("clusters.txt", out -> {
+				out.write("incompleto");
+				throw new IOException("fallo el escritor");
+			});
+			fail("Se ignoro el error del escritor");
+		}
+		catch (StorageException expected) {}
+		assertEquals("anterior", new String(Files.readAllBytes(storageService.load("clusters.txt")), StandardCharsets.UTF_8));
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath()))
+		{
+			assertEquals(1, files.count());
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package mx.fcc.buap.clasificador.service;
+
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.domain.DataSet;
+import mx.fcc.buap.clasificador.domain.Row;
+import mx.fcc.buap.clasificador.kmeans.KMeansAlgorithm;
+import mx.fcc.buap.clasificador.kmeans.KMeansOptions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarFileTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DataSetService service = new DataSetService(new ClasificadorProperties());
+
+	@Test
+	public void mappedFileMatchesCsv() throws IOException
+	{
+		Path csv = folder.getRoot().toPath().resolve("MixedData.csv");
+		Files.copy(Paths.get("csv-samples", "MixedData.csv"), csv, StandardCopyOption.REPLACE_EXISTING);
+
+		ColumnarDataSet parsed = service.convertToColumnar(csv);
+		assertTrue(Files.exists(ColumnarFile.companionOf(csv)));
+
+		ColumnarDataSet mapped = service.mapColumnar(csv);
+		assertEquals(parsed.getRowSize(), mapped.getRowSize());
+		assertEquals(parsed.getColumnSize(), mapped.getColumnSize());
+		assertEquals(parsed.getAttributeType().toString(), mapped.getAttributeType().toString());
+		for (int c = 0; c < parsed.getColumnSize(); c++)
+		{
+			assertEquals(parsed.getCardinality(c), mapped.getCardinality(c));
+			for (int r = 0; r < parsed.getRowSize(); r++)
+				assertEquals(parsed.get(r, c), mapped.get(r, c), 0);
+		}
+		assertEquals(parsed.zScore().toString(), mapped.zScore().toString());
+	}
+
+	@Test
+	public void nominalCategoriesMatchExactModel() throws IOException
+	{
+		Path csv = folder.getRoot().toPath().resolve("Categories.csv");
+		Files.write(csv, Arrays.asList("4", "2", "0,2", "1.5,2.5", "2.5,2.0", "3.5,1e6", "4.5,2.5"));
+
+		DataSet exact = service.readExact(csv);
+		ColumnarDataSet parsed = service.convertToColumnar(csv);
+		ColumnarDataSet mapped = service.mapColumnar(csv);
+		assertEquals(5, parsed.getCardinality(1));
+		assertEquals(5, mapped.getCardinality(1));
+		for (int r = 0; r < exact.getRowSize(); r++)
+		{
+			BigDecimal category = exact.get(r).get(1);
+			assertEquals(category, parsed.getCategory(1, (int) parsed.get(r, 1)));
+			assertEquals(category, mapped.getCategory(1, (int) mapped.get(r, 1)));
+		}
+		assertEquals(parsed.toString(), mapped.toString());
+
+		KMeansOptions miniBatch = new KMeansOptions();
+		miniBatch.setAlgorithm(KMeansAlgorithm.MINI_BATCH);
+		Set<Row> centroids = new HashSet<>(Arrays.asList(
+				new Row(new BigDecimal[] { BigDecimal.ONE, new BigDecimal("7") }),
+				new Row(new BigDecimal[] { BigDecimal.TEN, new BigDecimal("2.5") })));
+		assertEquals(2, mapped.kMeans(centroids, miniBatch).size());
+	}
+
+	@Test
+	public void concurrentConversionsPublishAWholeFile() throws Exception
+	{
+		Path csv = folder.getRoot().toPath().resolve("NumericalData.csv");
+		Files.copy(Paths.get("csv-samples", "NumericalData.csv"), csv, StandardCopyOption.REPLACE_EXISTING);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<ColumnarDataSet>> conversions = new ArrayList<>();
+			for (int i = 0; i < 8; i++)
+				conversions.add(executor.submit(() -> service.convertToColumnar(csv)));
+			for (Future<ColumnarDataSet> conversion : conversions)
+				conversion.get();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertEquals(service.readColumnar(csv).toString(), ColumnarFile.map(ColumnarFile.companionOf(csv)).toString());
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath()))
+		{
+			assertEquals(2, files.count());
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package mx.fcc.buap.clasificador.service;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CsvTokenizerTest
+{
+	@Test
+	public void parseDoubleMatchesDoubleParseDouble() throws IOException
+	{
+		String[] fields = {
+				"0", "-0", "1", "+1", "286.44", "187.495", "1.52101", "0.000123", "-72.73",
+				"1e3", "2.5E-4", "123456789012345", "1234567890123456789", "0.1234567890123456789",
+				"1e30", "1e-30", "4.9e-324", "1.7976931348623157e308", ".5", "5.", " 7.25 "
+		};
+		StringBuilder line = new StringBuilder();
+		for (String field : fields) line.append(field).append(',');
+
+		double[] values = new double[fields.length];
+		CsvTokenizer csv = tokenizer(line.toString());
+		assertEquals(fields.length, csv.readLine(values));
+		for (int i = 0; i < fields.length; i++)
+			assertEquals(fields[i], Double.parseDouble(fields[i]), values[i], 0);
+	}
+
+	@Test
+	public void parseDoubleRoundsLikeDoubleParseDouble() throws IOException
+	{
+		Random random = new Random(3);
+		for (int n = 0; n < 10_000; n++)
+		{
+			String field = random.nextInt(1_000_000) + "." + random.nextInt(100_000);
+			double[] values = new double[1];
+			tokenizer(field).readLine(values);
+			assertEquals(field, Double.parseDouble(field), values[0], 0);
+		}
+	}
+
+	@Test
+	public void readLineCountsLikeStringSplit() throws IOException
+	{
+		CsvTokenizer csv = tokenizer("1,2,3,\r\n4,,6\n\nx,8\n9,10");
+		double[] values = new double[3];
+
+		assertEquals(3, csv.readLine(values));
+		assertArrayEquals(new double[]{1, 2, 3}, values, 0);
+		assertEquals(3, csv.readLine(values));
+		assertArrayEquals(new double[]{4, 0, 6}, values, 0);
+		assertEquals(0, csv.readLine(values));
+		assertEquals(2, csv.readLine(values));
+		assertEquals(0, values[0], 0);
+		assertEquals(2, csv.readLine(values));
+		assertEquals(-1, csv.readLine(values));
+	}
+
+	@Test
+	public void readsAcrossBufferBoundaries() throws IOException
+	{
+		StringBuilder content = new StringBuilder();
+		for (int r = 0; r < 20_000; r++)
+			content.append(r).append(".25,").append(-r).append('\n');
+
+		CsvTokenizer csv = tokenizer(content.toString());
+		double[] values = new double[2];
+		for (int r = 0; r < 20_000; r++)
+		{
+			assertEquals(2, csv.readLine(values));
+			assertArrayEquals(new double[]{r + 0.25, -r}, values, 0);
+		}
+		assertEquals(-1, csv.readLine(values));
+	}
+
+	@Test
+	public void readsBigDecimalsAndIntegers() throws IOException
+	{
+		CsvTokenizer csv = tokenizer("694\n6,4,0,10\n1.5200,abc\n");
+		assertArrayEquals(new int[]{694}, csv.readIntLine());
+		assertArrayEquals(new int[]{6, 4, 0, 10}, csv.readIntLine());
+
+		BigDecimal[] values = new BigDecimal[2];
+		assertEquals(2, csv.readLine(values));
+		assertEquals(new BigDecimal("1.5200"), values[0]);
+		assertEquals(BigDecimal.ZERO, values[1]);
+	}
+
+	private static CsvTokenizer tokenizer(String content)
+	{
+		return new CsvTokenizer(Channels.newChannel(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII))));
+	}
+}
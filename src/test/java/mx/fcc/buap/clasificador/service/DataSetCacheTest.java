@@ -0,0 +1,66 @@
+package mx.fcc.buap.clasificador.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.AttributeType;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.domain.DataTable;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DataSetCacheTest
+{
+	private static final Path a = Paths.get("a.csv");
+	private static final Path b = Paths.get("b.csv");
+
+	@Test
+	public void evictsLeastRecentlyUsedAndInvalidatesByFile() throws IOException
+	{
+		ClasificadorProperties properties = new ClasificadorProperties();
+		properties.getCache().setMaxEntries(2);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DataSetCache cache = new DataSetCache(properties, registry);
+
+		DataTable first = cache.get(a, null, null, DataSetCacheTest::table);
+		cache.get(b, null, null, DataSetCacheTest::table);
+		assertSame(first, cache.get(a, null, null, DataSetCacheTest::table));
+		cache.get(a, null, "z-score", DataSetCacheTest::table);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, registry.counter("clasificador.cache.evictions").count(), 0);
+		assertEquals(1, registry.counter("clasificador.cache.requests", "result", "hit").count(), 0);
+
+		cache.invalidate(a);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.bytes());
+		assertNotSame(first, cache.get(a, null, null, DataSetCacheTest::table));
+	}
+
+	@Test
+	public void tableLoadedBeforeAnInvalidationIsNotCached() throws IOException
+	{
+		DataSetCache cache = new DataSetCache(new ClasificadorProperties(), new SimpleMeterRegistry());
+		DataTable stale = cache.get(a, null, null, () -> {
+			// el archivo se reemplaza mientras se lee
+			cache.invalidate(a);
+			return table();
+		});
+		assertEquals(0, cache.size());
+		assertNotSame(stale, cache.get(a, null, null, DataSetCacheTest::table));
+		assertEquals(1, cache.size());
+	}
+
+	private static DataTable table()
+	{
+		ColumnarDataSet dataSet = new ColumnarDataSet(new AttributeType(new int[] { 0 }), 1, 1);
+		dataSet.add(new double[] { 1 });
+		return dataSet;
+	}
+}
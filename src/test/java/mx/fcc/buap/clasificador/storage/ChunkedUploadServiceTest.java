@@ -0,0 +1,224 @@
+package mx.fcc.buap.clasificador.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mx.fcc.buap.clasificador.ClasificadorProperties;
+import mx.fcc.buap.clasificador.domain.ColumnarDataSet;
+import mx.fcc.buap.clasificador.service.ColumnarFile;
+import mx.fcc.buap.clasificador.service.DataSetCache;
+import mx.fcc.buap.clasificador.service.DataSetService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ChunkedUploadServiceTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ClasificadorProperties properties = new ClasificadorProperties();
+	private final DataSetService dataSetService = new DataSetService(properties);
+	private StorageService storageService;
+	private ChunkedUploadService uploads;
+
+	@Before
+	public void setUp()
+	{
+		StorageProperties storage = new StorageProperties();
+		storage.setLocation(folder.getRoot().getPath());
+		DataSetCache cache = new DataSetCache(properties, new SimpleMeterRegistry());
+		storageService = new FileSystemStorageService(storage, dataSetService, cache);
+		uploads = new ChunkedUploadService(storageService, dataSetService, properties);
+	}
+
+	@After
+	public void tearDown() { uploads.shutdown(); }
+
+	@Test
+	public void chunksAreJoinedAndConverted() throws IOException
+	{
+		byte[] csv = Files.readAllBytes(Paths.get("csv-samples", "MixedData.csv"));
+		UploadSession session = uploads.start("MixedData.csv");
+		int chunkSize = 100;
+		for (int chunk = 0; chunk * chunkSize < csv.length; chunk++)
+		{
+			uploads.append(session.getId(), chunk, part(csv, chunk, chunkSize));
+			// Reenviar una parte ya recibida no la agrega otra vez
+			uploads.append(session.getId(), chunk, part(csv, chunk, chunkSize));
+		}
+		try
+		{
+			uploads.append(session.getId(), session.getNextChunk() + 1, part(csv, 0, chunkSize));
+			fail("Se acepto una parte fuera de orden");
+		}
+		catch (IllegalStateException expected) {}
+
+		uploads.complete(session.getId());
+		Path stored = storageService.load("MixedData.csv");
+		assertArrayEquals(csv, Files.readAllBytes(stored));
+		assertTrue(Files.exists(ColumnarFile.companionOf(stored)));
+
+		ColumnarDataSet expected = dataSetService.readColumnar(Paths.get("csv-samples", "MixedData.csv"));
+		ColumnarDataSet mapped = dataSetService.mapColumnar(stored);
+		assertEquals(expected.getRowSize(), mapped.getRowSize());
+		assertEquals(expected.toString(), mapped.toString());
+	}
+
+	@Test
+	public void onlyDataSetUploadsAreConverted()
+	{
+		byte[] centroids = "1.0,2.0\n3.0,4.0\n".getBytes(StandardCharsets.UTF_8);
+		storageService.store(new MockMultipartFile("centroids", "centroids.csv", "text/csv", centroids));
+		Path stored = storageService.load("centroids.csv");
+		assertTrue(Files.exists(stored));
+		assertFalse(Files.exists(ColumnarFile.companionOf(stored)));
+
+		try
+		{
+			storageService.storeDataSet(new MockMultipartFile("file", "invalid.csv", "text/csv", centroids));
+			fail("Se acepto un conjunto de datos sin encabezado");
+		}
+		catch (InvalidDataSetException expected) {}
+		assertFalse(Files.exists(storageService.load("invalid.csv")));
+	}
+
+	@Test
+	public void invalidHeaderIsRejectedOnTheFirstChunk() throws IOException
+	{
+		UploadSession session = uploads.start("invalido.csv");
+		try
+		{
+			uploads.append(session.getId(), 0, new ByteArrayInputStream("a,b\n1,2\n3,4\n5,6\n".getBytes()));
+			fail("Se acepto un encabezado invalido");
+		}
+		catch (IllegalArgumentException expected) {}
+		try
+		{
+			uploads.get(session.getId());
+			fail("La carga no se descarto");
+		}
+		catch (StorageFileNotFoundException expected) {}
+	}
+
+	@Test
+	public void failedStoreDoesNotCompleteTheUpload() throws IOException
+	{
+		DataSetCache cache = new DataSetCache(properties, new SimpleMeterRegistry());
+		StorageProperties storage = new StorageProperties();
+		storage.setLocation(folder.getRoot().getPath());
+		StorageService failing = new FileSystemStorageService(storage, dataSetService, cache)
+		{
+			@Override
+			public void store(Path source, String filename, ColumnarDataSet converted)
+			{
+				throw new StorageException("Disco lleno");
+			}
+		};
+		ChunkedUploadService failingUploads = new ChunkedUploadService(failing, dataSetService, properties);
+		try
+		{
+			UploadSession session = failingUploads.start("MixedData.csv");
+			failingUploads.append(session.getId(), 0, Files.newInputStream(Paths.get("csv-samples", "MixedData.csv")));
+			try
+			{
+				failingUploads.complete(session.getId());
+				fail("Se completo una carga que no se guardo");
+			}
+			catch (StorageException expected) {}
+			assertFalse(session.isCompleted());
+			try
+			{
+				failingUploads.complete(session.getId());
+				fail("El reintento reporto como guardada una carga que no se guardo");
+			}
+			catch (StorageFileNotFoundException expected) {}
+			assertFalse(Files.exists(session.getPart()));
+		}
+		finally
+		{
+			failingUploads.shutdown();
+		}
+	}
+
+	@Test
+	public void reservedNamesAreRejected() throws IOException
+	{
+		for (String name : new String[] { ".uploads", ".oculto.csv", "datos.csv.cols", "datos.csv.tmp" })
+			try
+			{
+				uploads.start(name);
+				fail("Se acepto el nombre reservado " + name);
+			}
+			catch (IllegalArgumentException expected) {}
+	}
+
+	@Test
+	public void pruneSkipsSessionsInProgress() throws Exception
+	{
+		properties.getUploads().setIdleTimeout(Duration.ofMillis(20));
+		ChunkedUploadService idle = new ChunkedUploadService(storageService, dataSetService, properties);
+		try
+		{
+			UploadSession session = idle.start("MixedData.csv");
+			CountDownLatch locked = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			Thread appending = new Thread(() -> {
+				session.getAppendLock().lock();
+				locked.countDown();
+				try
+				{
+					release.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				finally
+				{
+					session.getAppendLock().unlock();
+				}
+			});
+			appending.start();
+			assertTrue(locked.await(10, TimeUnit.SECONDS));
+			Thread.sleep(50);
+
+			idle.start("otro.csv");
+			assertSame(session, idle.get(session.getId()));
+
+			release.countDown();
+			appending.join();
+			idle.start("otro.csv");
+			try
+			{
+				idle.get(session.getId());
+				fail("La carga inactiva no se descarto");
+			}
+			catch (StorageFileNotFoundException expected) {}
+		}
+		finally
+		{
+			idle.shutdown();
+		}
+	}
+
+	private static ByteArrayInputStream part(byte[] data, int chunk, int chunkSize)
+	{
+		int from = chunk * chunkSize;
+		return new ByteArrayInputStream(Arrays.copyOfRange(data, from, Math.min(data.length, from + chunkSize)));
+	}
+}